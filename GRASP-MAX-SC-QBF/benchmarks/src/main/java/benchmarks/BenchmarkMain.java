@@ -0,0 +1,141 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import problems.qbf.matrices.DenseKernel;
+
+/**
+ * Runs the JMH suites and keeps their results as a performance baseline.
+ *
+ * Usage: {@code java -jar benchmarks/target/benchmarks.jar [JMH options]
+ * [--baseline <csv>]}, run from the project folder. The JMH options are the
+ * usual ones, e.g. a regex selecting the benchmarks, {@code -p instance=qbf040}
+ * to fix a parameter or {@code -f}, {@code -wi}, {@code -i} to change the
+ * number of forks, warmup and measurement iterations. The GC profiler is
+ * always on, for the allocation rate.
+ *
+ * The results are written to {@code results/benchmarks_<timestamp>.csv},
+ * one line per benchmark and parameters, with the throughput, its standard
+ * deviation and the bytes allocated per operation. With {@code --baseline},
+ * the throughput of each benchmark is compared with the one in the CSV of a
+ * previous run.
+ */
+public class BenchmarkMain {
+
+	private static final String HEADER = "benchmark,param,opsPerSecond,opsPerSecondStdDev,bytesPerOp";
+
+	public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException {
+		Path baseline = null;
+		List<String> jmhArgs = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--baseline") && i + 1 < args.length)
+				baseline = Paths.get(args[++i]);
+			else
+				jmhArgs.add(args[i]);
+		}
+
+		System.out.println("Dense kernel: " + DenseKernel.get().getName());
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+		Path output = Paths.get("results", "benchmarks_" + timestamp + ".csv");
+		List<String> lines = toCsv(results);
+		writeCsv(output, lines);
+		System.out.println("Results written to " + output);
+		if (baseline != null)
+			compareWith(baseline, lines);
+	}
+
+	/**
+	 * @param results
+	 *            The results of the JMH run.
+	 * @return The CSV lines of the results, without the header.
+	 */
+	private static List<String> toCsv(Collection<RunResult> results) {
+		List<String> lines = new ArrayList<String>();
+		for (RunResult r : results) {
+			String benchmark = r.getParams().getBenchmark();
+			benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+			StringBuilder param = new StringBuilder();
+			for (String key : r.getParams().getParamsKeys()) {
+				if (param.length() > 0)
+					param.append(';');
+				param.append(key).append('=').append(r.getParams().getParam(key));
+			}
+			Result<?> primary = r.getPrimaryResult();
+			Result<?> alloc = r.getSecondaryResults().get("gc.alloc.rate.norm");
+			lines.add(String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,%.3f", benchmark, param, primary.getScore(),
+					primary.getStatistics().getStandardDeviation(), (alloc == null) ? Double.NaN : alloc.getScore()));
+		}
+		return lines;
+	}
+
+	private static void writeCsv(Path output, List<String> lines) throws IOException {
+		if (output.getParent() != null)
+			Files.createDirectories(output.getParent());
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+			out.println(HEADER);
+			for (String line : lines) {
+				out.println(line);
+			}
+		}
+	}
+
+	/**
+	 * Compares the results of this run with the ones of a CSV file written
+	 * by a previous run, printing the throughput ratio of each benchmark
+	 * found in both.
+	 *
+	 * @param baseline
+	 *            The CSV file of the previous run.
+	 * @param lines
+	 *            The CSV lines of this run.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	private static void compareWith(Path baseline, List<String> lines) throws IOException {
+		Map<String, Double> baselineOps = new HashMap<String, Double>();
+		for (String line : Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+			String[] fields = line.split(",");
+			if (fields.length == 5 && !line.equals(HEADER))
+				baselineOps.put(fields[0] + "," + fields[1], Double.parseDouble(fields[2]));
+		}
+
+		System.out.println("Comparison with " + baseline + " (current / baseline throughput):");
+		for (String line : lines) {
+			String[] fields = line.split(",");
+			Double before = baselineOps.get(fields[0] + "," + fields[1]);
+			if (before != null)
+				System.out.println(String.format(Locale.ROOT, "%-50s %-30s %8.2fx", fields[0], fields[1],
+						Double.parseDouble(fields[2]) / before));
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import problems.qbf.QBF;
+import problems.qbf.QBF_Inverse;
+import solutions.Solution;
+
+/**
+ * Full and delta evaluations of the QBF on the qbf instances, on a fixed
+ * random solution with about half of the variables in it. The delta
+ * benchmarks cycle through the variables outside of the solution, and the
+ * exchange benchmarks pair each of them with a variable in it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class EvaluatorBenchmarks {
+
+	@Param({ "qbf020", "qbf040", "qbf060", "qbf080", "qbf100", "qbf200", "qbf400" })
+	public String instance;
+
+	private QBF qbf;
+
+	private Solution<Integer> sol;
+
+	private int[] outside;
+
+	private int counter;
+
+	@Setup
+	public void setUp() throws IOException {
+		qbf = new QBF_Inverse(Paths.get(Instances.DIRECTORY, "qbf", instance).toString());
+		sol = Instances.randomSolution(qbf.size, new Random(42));
+		List<Integer> out = new ArrayList<Integer>();
+		for (int i = 0; i < qbf.size; i++)
+			if (!sol.contains(i))
+				out.add(i);
+		outside = out.stream().mapToInt(Integer::intValue).toArray();
+		qbf.bind(sol);
+	}
+
+	@Benchmark
+	public double evaluate() {
+		return qbf.evaluate(sol);
+	}
+
+	@Benchmark
+	public double evaluateInsertionCost() {
+		return qbf.evaluateInsertionCost(outside[counter++ % outside.length], sol);
+	}
+
+	@Benchmark
+	public double evaluateExchangeCost() {
+		int k = counter++;
+		return qbf.evaluateExchangeCost(outside[k % outside.length], sol.get(k % sol.size()), sol);
+	}
+
+	@Benchmark
+	public double evaluateInsertionDelta() {
+		return qbf.evaluateInsertionDelta(outside[counter++ % outside.length]);
+	}
+
+	@Benchmark
+	public double evaluateExchangeDelta() {
+		int k = counter++;
+		return qbf.evaluateExchangeDelta(outside[k % outside.length], sol.get(k % sol.size()));
+	}
+
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.nio.file.Paths;
+import java.util.Random;
+
+import solutions.Solution;
+
+/**
+ * Where the benchmarks find the bundled instances, and the solutions they
+ * are measured on.
+ */
+final class Instances {
+
+	/**
+	 * the instances folder, given by the {@code qbf.instances} property and
+	 * relative to the project folder by default
+	 */
+	static final String DIRECTORY = System.getProperty("qbf.instances", "instances");
+
+	private Instances() {
+	}
+
+	/**
+	 * @param n
+	 *            The number of the instance.
+	 * @return The file of the qbf-sc instance.
+	 */
+	static String setCover(int n) {
+		return Paths.get(DIRECTORY, "qbf-sc", "instance_" + n + ".txt").toString();
+	}
+
+	/**
+	 * @param size
+	 *            The number of variables.
+	 * @param random
+	 *            The random number generator.
+	 * @return A solution with each variable in it with probability 1/2.
+	 */
+	static Solution<Integer> randomSolution(int size, Random random) {
+		Solution<Integer> sol = new Solution<Integer>();
+		for (int i = 0; i < size; i++)
+			if (random.nextBoolean())
+				sol.add(i);
+		return sol;
+	}
+
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metaheuristics.grasp.AbstractGRASP;
+import problems.qbf.search_strategies.AbstractSearchStrategy;
+import problems.qbf.search_strategies.BestImprovingSearchStrategy;
+import problems.qbf.search_strategies.DontLookBitsSearchStrategy;
+import problems.qbf.search_strategies.FirstImprovingSearchStrategy;
+import problems.qbf.search_strategies.ParallelBestImprovingSearchStrategy;
+import problems.qbf.search_strategies.RestrictedExchangeSearchStrategy;
+import problems.qbf.solvers.GRASP_QBF_SC;
+
+/**
+ * One full descent of each search strategy on the qbf-sc instances. The
+ * descent starts from a fresh solution of the constructive heuristic, built
+ * before each call and left out of the measurement. A descent takes well
+ * over a millisecond, so the per-invocation setup does not skew the timing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class LocalSearchBenchmarks {
+
+	@Param({ "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14" })
+	public int instance;
+
+	@Param({ "bestImproving", "firstImproving", "dontLookBits", "parallelBestImproving", "restrictedExchange" })
+	public String strategy;
+
+	private GRASP_QBF_SC solver;
+
+	private int iteration;
+
+	@Setup
+	public void setUp() throws IOException {
+		AbstractGRASP.verbose = false;
+		solver = new GRASP_QBF_SC(0.05, 1, Instances.setCover(instance), null, null);
+		solver.setSearchStrategy(createStrategy(strategy));
+	}
+
+	@Setup(Level.Invocation)
+	public void construct() {
+		solver.startIteration(iteration++);
+		solver.constructiveHeuristic();
+	}
+
+	@Benchmark
+	public double localSearch() {
+		return solver.localSearch().cost;
+	}
+
+	private static AbstractSearchStrategy<Integer> createStrategy(String name) {
+		switch (name) {
+		case "bestImproving": return new BestImprovingSearchStrategy<Integer>();
+		case "firstImproving": return new FirstImprovingSearchStrategy<Integer>();
+		case "dontLookBits": return new DontLookBitsSearchStrategy();
+		case "parallelBestImproving": return new ParallelBestImprovingSearchStrategy<Integer>();
+		case "restrictedExchange": return new RestrictedExchangeSearchStrategy();
+		default: throw new IllegalArgumentException("Unknown search strategy: " + name);
+		}
+	}
+
+}
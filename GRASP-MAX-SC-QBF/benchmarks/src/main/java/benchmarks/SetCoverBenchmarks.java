@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metaheuristics.grasp.AbstractGRASP;
+import problems.qbf.QBF_SC_Inverse;
+import problems.qbf.solvers.GRASP_QBF_SC;
+import solutions.Solution;
+
+/**
+ * The set-cover query and the constructive heuristic of the GRASP on the
+ * qbf-sc instances. Each call of the constructive heuristic starts a new
+ * iteration, so it builds a different solution every time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class SetCoverBenchmarks {
+
+	@Param({ "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14" })
+	public int instance;
+
+	private QBF_SC_Inverse qbf;
+
+	private GRASP_QBF_SC solver;
+
+	private Solution<Integer> sol;
+
+	private int iteration;
+
+	@Setup
+	public void setUp() throws IOException {
+		AbstractGRASP.verbose = false;
+		qbf = new QBF_SC_Inverse(Instances.setCover(instance));
+		solver = new GRASP_QBF_SC(0.05, 1, Instances.setCover(instance), null, null);
+		sol = new GRASP_QBF_SC(0.05, 1, qbf.copy(), null, null).constructiveHeuristic();
+	}
+
+	@Benchmark
+	public int getVariablesThatCanBeSetToZero() {
+		qbf.setVariables(sol);
+		return qbf.getVariablesThatCanBeSetToZero().size();
+	}
+
+	@Benchmark
+	public double constructiveHeuristic() {
+		solver.startIteration(iteration++);
+		return solver.constructiveHeuristic().cost;
+	}
+
+}
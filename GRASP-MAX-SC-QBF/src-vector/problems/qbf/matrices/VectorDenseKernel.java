@@ -0,0 +1,249 @@
+package problems.qbf.matrices;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel of the dense matrices, written with the incubating Vector API.
+ * The rows are processed a whole vector of the preferred species at a time,
+ * and the last partial vector of a row under a mask, so no scalar tail loop
+ * is needed. The dot products keep two accumulators, which hides the latency
+ * of the fused multiply-adds. The integer and single-precision coefficients are loaded as vectors
+ * with as many lanes as a double vector, and widened to it. Where such a
+ * vector would be under 64 bits, as 16-bit coefficients on 128-bit hosts,
+ * the 64-bit vector is loaded instead, and only its first lanes widened. A
+ * type of coefficient that has no vector species on the host falls back to
+ * the scalar loops, without taking the other types with it.
+ *
+ * This class lives in its own source root, since compiling and running it
+ * needs {@code --add-modules jdk.incubator.vector}; {@link DenseKernel#get()}
+ * only loads it when that module is available.
+ */
+public class VectorDenseKernel extends DenseKernel {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * the species the narrow coefficients are loaded with, or null for a
+	 * type that runs the scalar loops
+	 */
+	private static final VectorSpecies<Short> SHORTS = narrow(short.class, Short.SIZE);
+
+	private static final VectorSpecies<Integer> INTS = narrow(int.class, Integer.SIZE);
+
+	private static final VectorSpecies<Float> FLOATS = narrow(float.class, Float.SIZE);
+
+	/**
+	 * Returns the species of at least as many lanes as {@link #SPECIES} and at
+	 * least 64 bits for a type of coefficient.
+	 *
+	 * @param type
+	 *            the type of the coefficients.
+	 * @param size
+	 *            the size of a coefficient, in bits.
+	 * @return the species, or null if the host has none of that size.
+	 */
+	private static <T> VectorSpecies<T> narrow(Class<T> type, int size) {
+		try {
+			return VectorSpecies.of(type, VectorShape.forBitSize(Math.max(SPECIES.length() * size, 64)));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public double dot(double[] a, int offset, double[] x, int from, int to) {
+		int length = SPECIES.length();
+		DoubleVector acc0 = DoubleVector.zero(SPECIES), acc1 = DoubleVector.zero(SPECIES);
+		int j = from;
+		for (int bound = from + ((to - from) & ~(2 * length - 1)); j < bound; j += 2 * length) {
+			acc0 = DoubleVector.fromArray(SPECIES, a, offset + j).fma(DoubleVector.fromArray(SPECIES, x, j), acc0);
+			acc1 = DoubleVector.fromArray(SPECIES, a, offset + j + length).fma(DoubleVector.fromArray(SPECIES, x, j + length), acc1);
+		}
+		for (; j < to; j += length) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, to);
+			acc0 = DoubleVector.fromArray(SPECIES, a, offset + j, mask).fma(DoubleVector.fromArray(SPECIES, x, j, mask), acc0);
+		}
+		return acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public void addScaled(double[] a, int offset, double scale, double[] y, int n) {
+		DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+		int j = 0;
+		for (int bound = SPECIES.loopBound(n); j < bound; j += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, a, offset + j).fma(factor, DoubleVector.fromArray(SPECIES, y, j)).intoArray(y, j);
+		}
+		if (j < n) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, n);
+			DoubleVector.fromArray(SPECIES, a, offset + j, mask).fma(factor, DoubleVector.fromArray(SPECIES, y, j, mask)).intoArray(y, j, mask);
+		}
+	}
+
+	@Override
+	public double dot(short[] a, int offset, double[] x, int from, int to) {
+		if (SHORTS == null)
+			return SCALAR.dot(a, offset, x, from, to);
+		int length = SPECIES.length();
+		DoubleVector acc0 = DoubleVector.zero(SPECIES), acc1 = DoubleVector.zero(SPECIES);
+		int j = from;
+		for (int bound = from + ((to - from) & ~(2 * length - 1)); j < bound; j += 2 * length) {
+			acc0 = widen(a, offset + j).fma(DoubleVector.fromArray(SPECIES, x, j), acc0);
+			acc1 = widen(a, offset + j + length).fma(DoubleVector.fromArray(SPECIES, x, j + length), acc1);
+		}
+		for (; j < to; j += length) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, to);
+			acc0 = widen(ShortVector.fromArray(SHORTS, a, offset + j, SHORTS.indexInRange(j, to)))
+					.fma(DoubleVector.fromArray(SPECIES, x, j, mask), acc0);
+		}
+		return acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public void addScaled(short[] a, int offset, double scale, double[] y, int n) {
+		if (SHORTS == null) {
+			SCALAR.addScaled(a, offset, scale, y, n);
+			return;
+		}
+		DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+		int j = 0;
+		for (int bound = SPECIES.loopBound(n); j < bound; j += SPECIES.length()) {
+			widen(a, offset + j).fma(factor, DoubleVector.fromArray(SPECIES, y, j)).intoArray(y, j);
+		}
+		if (j < n) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, n);
+			widen(ShortVector.fromArray(SHORTS, a, offset + j, SHORTS.indexInRange(j, n)))
+					.fma(factor, DoubleVector.fromArray(SPECIES, y, j, mask)).intoArray(y, j, mask);
+		}
+	}
+
+	@Override
+	public double dot(int[] a, int offset, double[] x, int from, int to) {
+		if (INTS == null)
+			return SCALAR.dot(a, offset, x, from, to);
+		int length = SPECIES.length();
+		DoubleVector acc0 = DoubleVector.zero(SPECIES), acc1 = DoubleVector.zero(SPECIES);
+		int j = from;
+		for (int bound = from + ((to - from) & ~(2 * length - 1)); j < bound; j += 2 * length) {
+			acc0 = widen(a, offset + j).fma(DoubleVector.fromArray(SPECIES, x, j), acc0);
+			acc1 = widen(a, offset + j + length).fma(DoubleVector.fromArray(SPECIES, x, j + length), acc1);
+		}
+		for (; j < to; j += length) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, to);
+			acc0 = widen(IntVector.fromArray(INTS, a, offset + j, INTS.indexInRange(j, to)))
+					.fma(DoubleVector.fromArray(SPECIES, x, j, mask), acc0);
+		}
+		return acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public void addScaled(int[] a, int offset, double scale, double[] y, int n) {
+		if (INTS == null) {
+			SCALAR.addScaled(a, offset, scale, y, n);
+			return;
+		}
+		DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+		int j = 0;
+		for (int bound = SPECIES.loopBound(n); j < bound; j += SPECIES.length()) {
+			widen(a, offset + j).fma(factor, DoubleVector.fromArray(SPECIES, y, j)).intoArray(y, j);
+		}
+		if (j < n) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, n);
+			widen(IntVector.fromArray(INTS, a, offset + j, INTS.indexInRange(j, n)))
+					.fma(factor, DoubleVector.fromArray(SPECIES, y, j, mask)).intoArray(y, j, mask);
+		}
+	}
+
+	@Override
+	public double dot(float[] a, int offset, double[] x, int from, int to) {
+		if (FLOATS == null)
+			return SCALAR.dot(a, offset, x, from, to);
+		int length = SPECIES.length();
+		DoubleVector acc0 = DoubleVector.zero(SPECIES), acc1 = DoubleVector.zero(SPECIES);
+		int j = from;
+		for (int bound = from + ((to - from) & ~(2 * length - 1)); j < bound; j += 2 * length) {
+			acc0 = widen(a, offset + j).fma(DoubleVector.fromArray(SPECIES, x, j), acc0);
+			acc1 = widen(a, offset + j + length).fma(DoubleVector.fromArray(SPECIES, x, j + length), acc1);
+		}
+		for (; j < to; j += length) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, to);
+			acc0 = widen(FloatVector.fromArray(FLOATS, a, offset + j, FLOATS.indexInRange(j, to)))
+					.fma(DoubleVector.fromArray(SPECIES, x, j, mask), acc0);
+		}
+		return acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public void addScaled(float[] a, int offset, double scale, double[] y, int n) {
+		if (FLOATS == null) {
+			SCALAR.addScaled(a, offset, scale, y, n);
+			return;
+		}
+		DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+		int j = 0;
+		for (int bound = SPECIES.loopBound(n); j < bound; j += SPECIES.length()) {
+			widen(a, offset + j).fma(factor, DoubleVector.fromArray(SPECIES, y, j)).intoArray(y, j);
+		}
+		if (j < n) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, n);
+			widen(FloatVector.fromArray(FLOATS, a, offset + j, FLOATS.indexInRange(j, n)))
+					.fma(factor, DoubleVector.fromArray(SPECIES, y, j, mask)).intoArray(y, j, mask);
+		}
+	}
+
+	/**
+	 * Loads the coefficients a[k], a[k + 1], ... into the first lanes of a
+	 * narrow vector, masking the lanes past the end of the array, which the
+	 * narrow vector only reaches when it has more lanes than a double vector,
+	 * and widens them.
+	 */
+	private static DoubleVector widen(short[] a, int k) {
+		if (k + SHORTS.length() <= a.length)
+			return widen(ShortVector.fromArray(SHORTS, a, k));
+		return widen(ShortVector.fromArray(SHORTS, a, k, SHORTS.indexInRange(k, a.length)));
+	}
+
+	private static DoubleVector widen(int[] a, int k) {
+		if (k + INTS.length() <= a.length)
+			return widen(IntVector.fromArray(INTS, a, k));
+		return widen(IntVector.fromArray(INTS, a, k, INTS.indexInRange(k, a.length)));
+	}
+
+	private static DoubleVector widen(float[] a, int k) {
+		if (k + FLOATS.length() <= a.length)
+			return widen(FloatVector.fromArray(FLOATS, a, k));
+		return widen(FloatVector.fromArray(FLOATS, a, k, FLOATS.indexInRange(k, a.length)));
+	}
+
+	private static DoubleVector widen(ShortVector v) {
+		return (DoubleVector) v.convertShape(VectorOperators.S2D, SPECIES, 0);
+	}
+
+	private static DoubleVector widen(IntVector v) {
+		return (DoubleVector) v.convertShape(VectorOperators.I2D, SPECIES, 0);
+	}
+
+	private static DoubleVector widen(FloatVector v) {
+		return (DoubleVector) v.convertShape(VectorOperators.F2D, SPECIES, 0);
+	}
+
+	@Override
+	public String getName() {
+		// Tell the types of coefficients that run the scalar loops, if any
+		String name = "vector" + SPECIES.length() + "x64";
+		if (SHORTS == null)
+			name += "+scalar16";
+		if (INTS == null)
+			name += "+scalar32i";
+		if (FLOATS == null)
+			name += "+scalar32f";
+		return name;
+	}
+
+}
@@ -0,0 +1,225 @@
+import metaheuristics.grasp.GRASPMetrics;
+import problems.qbf.InstanceCache;
+import problems.qbf.QBF_SC_Inverse;
+import problems.qbf.solvers.GRASP_QBF_SC;
+import solutions.Solution;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Runs the jobs of an experiment campaign, i.e., every (instance, parameter
+ * configuration, seed) combination, concurrently on a bounded pool of threads.
+ * The instances are read through the {@link InstanceCache}, so each instance
+ * file is parsed once, and the jobs on that instance get evaluators that share
+ * the matrix and the sets read-only. Since the jobs are queued instance by
+ * instance, an instance is only held while its jobs run, or until the cache
+ * evicts it.
+ * Finished jobs are appended to a checkpoint file, so that a campaign that
+ * was interrupted can be resumed without running the completed jobs again.
+ * The {@link GRASPMetrics} of each job are appended to a CSV file as well, one
+ * row per job, to see which phase dominates each instance.
+ */
+class ExperimentRunner {
+    private static final String CHECKPOINT_HEADER = "instance\tparameters\tseed\tcost\ttimeMs";
+    private static final String METRICS_HEADER = "instance,parameters,seed," + GRASPMetrics.CSV_HEADER;
+
+    private final Logger logger;
+    private final int nThreads;
+    private final Path checkpointFile;
+    private final Path metricsFile;
+
+    /**
+     * @param logger Logger shared by the runner and the solvers.
+     * @param nThreads Number of jobs running at the same time.
+     * @param checkpointFile File where finished jobs are recorded. If it already exists, the jobs listed in it are skipped.
+     * @param metricsFile File the metrics of the finished jobs are appended to. If null, no metrics are collected.
+     */
+    public ExperimentRunner(Logger logger, int nThreads, Path checkpointFile, Path metricsFile) {
+        this.logger = logger;
+        this.nThreads = nThreads;
+        this.checkpointFile = checkpointFile;
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Runs every job that is not in the checkpoint file yet, returning once all of them are finished.
+     */
+    public void run(String[] instances, InstanceParameters[] parameters, long[] seeds) throws IOException, InterruptedException {
+        Set<String> completedJobs = readCheckpoint();
+
+        // Group the pending jobs by instance, so that each instance stays cached while its jobs run
+        Map<String, List<Job>> pendingJobs = new LinkedHashMap<>();
+        for (String instance : instances) {
+            for (InstanceParameters param : parameters) {
+                for (long seed : seeds) {
+                    Job job = new Job(instance, param, seed);
+                    if (!completedJobs.contains(job.key())) {
+                        pendingJobs.computeIfAbsent(instance, k -> new ArrayList<>()).add(job);
+                    }
+                }
+            }
+        }
+        int nPending = pendingJobs.values().stream().mapToInt(List::size).sum();
+        logger.info("Jobs already completed: " + completedJobs.size() + ", jobs to run: " + nPending + ", threads: " + nThreads);
+
+        try (BufferedWriter checkpoint = openAppending(checkpointFile, CHECKPOINT_HEADER);
+                BufferedWriter metrics = (metricsFile != null) ? openAppending(metricsFile, METRICS_HEADER) : null) {
+            ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+            try {
+                for (List<Job> jobs : pendingJobs.values()) {
+                    for (Job job : jobs) {
+                        pool.submit(() -> runJob(job, checkpoint, metrics));
+                    }
+                }
+                pool.shutdown();
+                while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    // Jobs are bounded by their own timeouts, just keep waiting
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private void runJob(Job job, BufferedWriter checkpoint, BufferedWriter metrics) {
+        QBF_SC_Inverse evaluator;
+        try {
+            evaluator = new QBF_SC_Inverse(job.instance);
+        } catch (IOException e) {
+            logger.severe("Error loading instance " + job.instance + ": " + e.getMessage());
+            return;
+        }
+        try {
+            GRASP_QBF_SC solver = job.param.createSolver(evaluator, logger);
+            solver.setSeed(job.seed);
+            if (metrics != null) {
+                solver.setMetrics(new GRASPMetrics());
+            }
+
+            logger.info("Solving instance " + job.instance + " with parameters: " + job.param.describe() + ", seed=" + job.seed);
+            long startTime = System.currentTimeMillis();
+            Solution<Integer> bestSol = solver.solve();
+            long executionTime = System.currentTimeMillis() - startTime;
+
+            logger.info("Instance " + job.instance + " (" + job.param.describe() + ", seed=" + job.seed + ") completed successfully in "
+                    + executionTime + " ms: " + bestSol + "\n");
+            if (metrics != null) {
+                recordMetrics(metrics, job, solver.getMetrics());
+            }
+            recordCompleted(checkpoint, job, bestSol.cost, executionTime);
+        } catch (Exception e) {
+            logger.severe("Error solving instance " + job.instance + " with parameters: " + e.getMessage());
+            logger.severe("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+        }
+    }
+
+    private Set<String> readCheckpoint() throws IOException {
+        Set<String> completedJobs = new HashSet<>();
+        if (Files.exists(checkpointFile)) {
+            // Only the last line can be cut short by a crash, and it then lacks its line break, so it is
+            // left out and its job is run again, even if its fields happen to parse
+            String content = Files.readString(checkpointFile, StandardCharsets.UTF_8);
+            content.substring(0, content.lastIndexOf('\n') + 1).lines().forEach(line -> {
+                String[] fields = line.split("\t");
+                if (fields.length == 5 && !line.equals(CHECKPOINT_HEADER) && isRecord(fields)) {
+                    completedJobs.add(Job.key(fields[0], fields[1], fields[2]));
+                }
+            });
+        }
+        return completedJobs;
+    }
+
+    private static boolean isRecord(String[] fields) {
+        try {
+            Double.parseDouble(fields[3]);
+            Long.parseLong(fields[4]);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private BufferedWriter openAppending(Path file, String header) throws IOException {
+        boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+        boolean isCutShort = !isNew && !endsWithLineBreak(file);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (isNew) {
+            writer.write(header);
+            writer.newLine();
+            writer.flush();
+        } else if (isCutShort) {
+            // Ends the line a crash cut short, so that the next record is not glued to it
+            writer.newLine();
+            writer.flush();
+        }
+        return writer;
+    }
+
+    private static boolean endsWithLineBreak(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private void recordCompleted(BufferedWriter checkpoint, Job job, double cost, long executionTime) throws IOException {
+        // Each line is flushed on its own, so a crash loses at most the jobs that were still running
+        synchronized (checkpoint) {
+            checkpoint.write(job.instance + "\t" + job.param.describe() + "\t" + job.seed + "\t" + cost + "\t" + executionTime);
+            checkpoint.newLine();
+            checkpoint.flush();
+        }
+    }
+
+    private void recordMetrics(BufferedWriter metrics, Job job, GRASPMetrics jobMetrics) throws IOException {
+        // The parameters are described with commas, so the field is quoted
+        String parameters = "\"" + job.param.describe().replace("\"", "\"\"") + "\"";
+        synchronized (metrics) {
+            metrics.write(job.instance + "," + parameters + "," + job.seed + "," + jobMetrics.toCsvRow());
+            metrics.newLine();
+            metrics.flush();
+        }
+    }
+
+    private static class Job {
+        final String instance;
+        final InstanceParameters param;
+        final long seed;
+
+        Job(String instance, InstanceParameters param, long seed) {
+            this.instance = instance;
+            this.param = param;
+            this.seed = seed;
+        }
+
+        String key() {
+            return key(instance, param.describe(), Long.toString(seed));
+        }
+
+        static String key(String instance, String parameters, String seed) {
+            return instance + "\t" + parameters + "\t" + seed;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import metaheuristics.grasp.ElitePool;
+import metaheuristics.grasp.ReactiveAlpha;
+import problems.qbf.constructive_strategies.AbstractConstructiveStrategy;
+import problems.qbf.constructive_strategies.RandomPlusGreedyConstructiveStrategy;
+import problems.qbf.constructive_strategies.SampledGreedyConstructiveStrategy;
+import problems.qbf.search_strategies.AbstractSearchStrategy;
+import problems.qbf.QBF_SC_Inverse;
+import problems.qbf.solvers.GRASP_QBF_SC;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+class InstanceParameters {
+    protected Double alpha;
+    protected Integer iterations;
+    protected AbstractSearchStrategy<Integer> searchStrategy;
+    protected Long timeoutInSeconds;
+    protected Integer maxIterationsWithoutImprovement;
+    // Size of the elite pool and minimum distance between elite solutions, path relinking is disabled if the size is 0
+    protected int eliteSize;
+    protected int minEliteDistance;
+    // Construction of the solutions, the standard one if null
+    protected AbstractConstructiveStrategy<Integer> constructiveStrategy;
+    // Values alpha is drawn from in a reactive GRASP, alpha is fixed if null
+    protected double[] reactiveAlphas;
+
+    public InstanceParameters(Double alpha, Integer iterations, AbstractSearchStrategy<Integer> searchStrategy, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) {
+        this.alpha = alpha;
+        this.iterations = iterations;
+        this.searchStrategy = searchStrategy;
+        this.timeoutInSeconds = timeoutInSeconds;
+        this.maxIterationsWithoutImprovement = maxIterationsWithoutImprovement;
+    }
+
+    public InstanceParameters withPathRelinking(int eliteSize, int minEliteDistance) {
+        this.eliteSize = eliteSize;
+        this.minEliteDistance = minEliteDistance;
+        return this;
+    }
+
+    public InstanceParameters withConstructiveStrategy(AbstractConstructiveStrategy<Integer> constructiveStrategy) {
+        this.constructiveStrategy = constructiveStrategy;
+        return this;
+    }
+
+    public InstanceParameters withReactiveAlpha(double[] reactiveAlphas) {
+        this.reactiveAlphas = reactiveAlphas;
+        return this;
+    }
+
+    public GRASP_QBF_SC createSolver(String filename, Logger logger) throws Exception {
+        GRASP_QBF_SC solver = new GRASP_QBF_SC(alpha, iterations, filename, timeoutInSeconds, maxIterationsWithoutImprovement);
+        configure(solver, logger);
+        return solver;
+    }
+
+    public GRASP_QBF_SC createSolver(QBF_SC_Inverse evaluator, Logger logger) {
+        GRASP_QBF_SC solver = new GRASP_QBF_SC(alpha, iterations, evaluator, timeoutInSeconds, maxIterationsWithoutImprovement);
+        configure(solver, logger);
+        return solver;
+    }
+
+    // The search and constructive strategies are stateless, so solvers created by different jobs can share them,
+    // but the elite pool and the reactive alpha hold the state of a run, so each solver gets its own
+    private void configure(GRASP_QBF_SC solver, Logger logger) {
+        solver.setSearchStrategy(searchStrategy);
+        if (constructiveStrategy != null) {
+            solver.setConstructiveStrategy(constructiveStrategy);
+        }
+        solver.setLogger(logger);
+        if (eliteSize > 0) {
+            solver.setElitePool(new ElitePool<Integer>(eliteSize, minEliteDistance));
+        }
+        if (reactiveAlphas != null) {
+            solver.setReactiveAlpha(new ReactiveAlpha(reactiveAlphas));
+        }
+    }
+
+    public String describe() {
+        return String.format("alpha=%.2f, iterations=%d, timeoutInSeconds=%d, maxIterationsWithoutImprovement=%d, searchStrategy=%s",
+                alpha, iterations, timeoutInSeconds, maxIterationsWithoutImprovement, searchStrategy.getClass().getSimpleName())
+                + (eliteSize > 0 ? String.format(", eliteSize=%d, minEliteDistance=%d", eliteSize, minEliteDistance) : "")
+                + (constructiveStrategy != null ? ", constructiveStrategy=" + describe(constructiveStrategy) : "")
+                + (reactiveAlphas != null ? ", reactiveAlpha=" + Arrays.toString(reactiveAlphas) : "");
+    }
+
+    private static String describe(AbstractConstructiveStrategy<Integer> constructiveStrategy) {
+        String name = constructiveStrategy.getClass().getSimpleName();
+        if (constructiveStrategy instanceof SampledGreedyConstructiveStrategy) {
+            return name + "(" + ((SampledGreedyConstructiveStrategy<Integer>) constructiveStrategy).getSampleSize() + ")";
+        }
+        if (constructiveStrategy instanceof RandomPlusGreedyConstructiveStrategy) {
+            return name + "(" + ((RandomPlusGreedyConstructiveStrategy<Integer>) constructiveStrategy).getRandomSteps() + ")";
+        }
+        return name;
+    }
+}
\ No newline at end of file
@@ -1,9 +1,10 @@
+import problems.qbf.constructive_strategies.RandomPlusGreedyConstructiveStrategy;
+import problems.qbf.constructive_strategies.SampledGreedyConstructiveStrategy;
 import problems.qbf.search_strategies.FirstImprovingSearchStrategy;
 import problems.qbf.search_strategies.BestImprovingSearchStrategy;
-import problems.qbf.search_strategies.AbstractSearchStrategy;
-import problems.qbf.solvers.GRASP_QBF_SC;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.logging.FileHandler;
@@ -13,6 +14,10 @@ import java.util.logging.Level;
 
 public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
+    // Finished jobs are recorded here, so that rerunning Main resumes the campaign
+    private static final String CHECKPOINT_FILE = "results/checkpoint.tsv";
+    // Counts of evaluations and phase times of each job, see GRASPMetrics
+    private static final String METRICS_FILE = "results/metrics.csv";
     
     public static void main(String[] args) {
         // Setup logger to write to file
@@ -25,29 +30,15 @@ public class Main {
         logger.info("Number of instances: " + instances.length);
         logger.info("Number of parameter configurations: " + parameters.length);
 
-        for (String instance : instances) {
-            for (InstanceParameters param : parameters) {
-                try {
-                    GRASP_QBF_SC solver = param.createSolver(instance, logger);
-                    long startTime = System.currentTimeMillis();
-
-                    String paramInfo = String.format("alpha=%.2f, iterations=%d, timeoutInSeconds=%d, maxIterationsWithoutImprovement=%d",
-                            param.alpha, param.iterations, param.timeoutInSeconds, param.maxIterationsWithoutImprovement);
-                    logger.info("Solving instance " + instance + " with parameters: " + paramInfo);
-                    logger.info("Search Strategy: " + param.searchStrategy.getClass().getSimpleName());
-                    
-                    solver.solve();
-                    long endTime = System.currentTimeMillis();
-                    long executionTime = endTime - startTime;
-                    
-                    logger.info("Solution found in " + executionTime + " ms");
-                    logger.info("Instance " + instance + " completed successfully\n");
-                    
-                } catch (Exception e) {
-                    logger.severe("Error solving instance " + instance + " with parameters: " + e.getMessage());
-                    logger.severe("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
-                }
-            }
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        ExperimentRunner runner = new ExperimentRunner(logger, nThreads, Paths.get(CHECKPOINT_FILE), Paths.get(METRICS_FILE));
+        try {
+            runner.run(instances, parameters, listSeeds());
+        } catch (IOException e) {
+            logger.severe("Error accessing the checkpoint file " + CHECKPOINT_FILE + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            logger.severe("Execution interrupted");
+            Thread.currentThread().interrupt();
         }
         
         logger.info("GRASP QBF-SC solver execution completed");
@@ -94,12 +85,21 @@ public class Main {
         return instances;
     }
 
+    protected static long[] listSeeds() {
+        return new long[] { 0L };
+    }
+
     protected static InstanceParameters[] listParameters() {
         Integer iterations = Integer.MAX_VALUE; // Run until timeout
         Long timeoutInSeconds = 60L * 30L; // 30 minutes
         Integer maxIterationsWithoutImprovement = 100000; // Stop if no improvement in 100,000 iterations
         Double alpha1 = 0.05;
         Double alpha2 = 0.5;
+        int eliteSize = 10;
+        int minEliteDistance = 4;
+        int sampleSize = 10;
+        double[] reactiveAlphas = { 0.05, 0.1, 0.2, 0.3, 0.5 };
+        int randomSteps = 5;
 
         return new InstanceParameters[] {
             // PADRÃO: alpha = 0.05, FirstImproving, heurística construtiva padrão
@@ -108,33 +108,18 @@ public class Main {
             new InstanceParameters(alpha2, iterations, new FirstImprovingSearchStrategy<Integer>(), timeoutInSeconds, maxIterationsWithoutImprovement),
             //PADRÃO + BEST: PADRÃO, mas com BestImproving
             new InstanceParameters(alpha1, iterations, new BestImprovingSearchStrategy<Integer>(), timeoutInSeconds, maxIterationsWithoutImprovement),
-            // PADRÃO + HC1: PADRÃO, mas com heurística construtiva alternativa 1
-            // @TODO: implementar
-            // PADRÃO + HC2: PADRÃO, mas com heurística construtiva alternativa 2
-            // @TODO: implementar
+            // PADRÃO + PR: PADRÃO, mas com path relinking entre soluções de elite
+            new InstanceParameters(alpha1, iterations, new FirstImprovingSearchStrategy<Integer>(), timeoutInSeconds, maxIterationsWithoutImprovement)
+                    .withPathRelinking(eliteSize, minEliteDistance),
+            // PADRÃO + REATIVO: PADRÃO, mas com alpha reativo, escolhido a cada iteração entre vários valores
+            new InstanceParameters(alpha1, iterations, new FirstImprovingSearchStrategy<Integer>(), timeoutInSeconds, maxIterationsWithoutImprovement)
+                    .withReactiveAlpha(reactiveAlphas),
+            // PADRÃO + HC1: PADRÃO, mas com heurística construtiva alternativa 1 (sampled greedy)
+            new InstanceParameters(alpha1, iterations, new FirstImprovingSearchStrategy<Integer>(), timeoutInSeconds, maxIterationsWithoutImprovement)
+                    .withConstructiveStrategy(new SampledGreedyConstructiveStrategy<Integer>(sampleSize)),
+            // PADRÃO + HC2: PADRÃO, mas com heurística construtiva alternativa 2 (random plus greedy)
+            new InstanceParameters(alpha1, iterations, new FirstImprovingSearchStrategy<Integer>(), timeoutInSeconds, maxIterationsWithoutImprovement)
+                    .withConstructiveStrategy(new RandomPlusGreedyConstructiveStrategy<Integer>(randomSteps)),
         };
     }
 }
-
-class InstanceParameters {
-    protected Double alpha;
-    protected Integer iterations;
-    protected AbstractSearchStrategy<Integer> searchStrategy;
-    protected Long timeoutInSeconds;
-    protected Integer maxIterationsWithoutImprovement;
-
-    public InstanceParameters(Double alpha, Integer iterations, AbstractSearchStrategy<Integer> searchStrategy, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) {
-        this.alpha = alpha;
-        this.iterations = iterations;
-        this.searchStrategy = searchStrategy;
-        this.timeoutInSeconds = timeoutInSeconds;
-        this.maxIterationsWithoutImprovement = maxIterationsWithoutImprovement;
-    }
-
-    public GRASP_QBF_SC createSolver(String filename, Logger logger) throws Exception {
-        GRASP_QBF_SC solver = new GRASP_QBF_SC(alpha, iterations, filename, timeoutInSeconds, maxIterationsWithoutImprovement);
-        solver.setSearchStrategy(searchStrategy);
-        solver.setLogger(logger);
-        return solver;
-    }
-}
\ No newline at end of file
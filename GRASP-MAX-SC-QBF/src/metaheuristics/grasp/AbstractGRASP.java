@@ -3,11 +3,18 @@
  */
 package metaheuristics.grasp;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
-import problems.Evaluator;
+import problems.IncrementalEvaluator;
+import problems.qbf.constructive_strategies.AbstractConstructiveStrategy;
+import problems.qbf.constructive_strategies.StandardConstructiveStrategy;
 import problems.qbf.solvers.GRASP_QBF;
 import solutions.Solution;
 
@@ -20,7 +27,7 @@ import solutions.Solution;
  *            Generic type of the element which composes the solution.
  */
 public abstract class AbstractGRASP<E> {
-    private Logger logger;
+    protected Logger logger;
 
 	/**
 	 * flag that indicates whether the code should print more information on
@@ -29,14 +36,22 @@ public abstract class AbstractGRASP<E> {
 	public static boolean verbose = true;
 
 	/**
-	 * a random number generator
+	 * the seed from which the random number streams of this solver derive
 	 */
-	static Random rng = new Random(0);
+	protected long seed = 0L;
+
+	/**
+	 * the random number generator of the current iteration. Each iteration
+	 * gets its own stream, derived from {@link #seed} and the iteration index
+	 * (see {@link #startIteration(int)}), so that a run is reproducible no
+	 * matter which solver or thread executes each iteration.
+	 */
+	protected SplittableRandom rng = new SplittableRandom(seed);
 
 	/**
 	 * the objective function being optimized
 	 */
-	protected Evaluator<E> ObjFunction;
+	protected IncrementalEvaluator<E> ObjFunction;
 
 	/**
 	 * the GRASP greediness-randomness parameter
@@ -46,12 +61,12 @@ public abstract class AbstractGRASP<E> {
 	/**
 	 * the best (incumbent) solution cost
 	 */
-	protected Double bestCost;
+	protected double bestCost;
 
 	/**
 	 * the current solution cost
 	 */
-	protected Double cost;
+	protected double cost;
 
 	/**
 	 * the best solution
@@ -84,9 +99,100 @@ public abstract class AbstractGRASP<E> {
 	protected ArrayList<E> CL;
 
 	/**
-	 * the Restricted Candidate List of elements to enter the solution.
+	 * buffer holding the insertion cost of each candidate of {@link #CL}
+	 * during a step of the constructive heuristic. It is sized once, to the
+	 * first Candidate List built by {@link #makeCL()}, which holds every
+	 * element, and reused across steps and iterations.
+	 */
+	protected double[] candidateCosts;
+
+	/**
+	 * the constructive heuristic building the solution of each iteration,
+	 * the standard GRASP construction by default
+	 */
+	protected AbstractConstructiveStrategy<E> constructiveStrategy = new StandardConstructiveStrategy<E>();
+
+	/**
+	 * the pool of elite solutions guiding the path relinking phase, or null
+	 * if path relinking is disabled (see {@link #pathRelinking()})
+	 */
+	protected ElitePool<E> elitePool;
+
+	/**
+	 * the distribution alpha is drawn from at each iteration, or null if
+	 * {@link #alpha} is fixed (see {@link ReactiveAlpha})
+	 */
+	protected ReactiveAlpha reactiveAlpha;
+
+	/**
+	 * the index of the value of alpha drawn for the current iteration
+	 */
+	protected int alphaIndex;
+
+	/**
+	 * the index of the current iteration
+	 */
+	protected int iteration;
+
+	/**
+	 * the metrics the iterations are added to, or null if they are not
+	 * collected (see {@link GRASPMetrics})
+	 */
+	protected GRASPMetrics metrics;
+
+	/**
+	 * the deadline of the current run, started by {@link #solve()} from
+	 * {@link #timeoutInSeconds}, and checked by the phases of the iterations
+	 * while they run (see {@link Deadline})
 	 */
-	protected ArrayList<E> RCL;
+	protected Deadline deadline = Deadline.unbounded();
+
+	/**
+	 * the listeners told of each improvement of the incumbent
+	 */
+	protected final List<IncumbentListener<E>> incumbentListeners = new CopyOnWriteArrayList<IncumbentListener<E>>();
+
+	/**
+	 * the value of {@link System#nanoTime()} when the current run started,
+	 * and the cost of the last incumbent passed to the listeners
+	 */
+	private long runStartNanos;
+
+	private double notifiedCost;
+
+	/**
+	 * the events waiting to be passed to the listeners, and whether a thread
+	 * is passing them on, both guarded by the monitor of the solver
+	 */
+	private final ArrayDeque<IncumbentEvent<E>> pendingEvents = new ArrayDeque<IncumbentEvent<E>>();
+
+	private boolean deliveringEvents;
+
+	/**
+	 * the file the run is checkpointed to, or null if it is not, the minimum
+	 * time between two checkpoints and the codec of the elements of the
+	 * solutions in them (see {@link GRASPCheckpoint})
+	 */
+	private Path checkpointFile;
+
+	private long checkpointIntervalNanos;
+
+	private ElementCodec<E> checkpointCodec;
+
+	/**
+	 * the counts of the current iteration, added to {@link #metrics} at its
+	 * end. They are plain fields, since a solver runs one iteration at a time,
+	 * and the code counting into them does so once per step or phase rather
+	 * than once per evaluation.
+	 */
+	private long insertionEvaluations, removalEvaluations, exchangeEvaluations;
+
+	private long fullEvaluations, clUpdates, movesAccepted;
+
+	/**
+	 * the time taken by each phase of the current iteration, in nanoseconds
+	 */
+	private long constructiveNanos, localSearchNanos, pathRelinkingNanos;
 
 	/**
 	 * Creates the Candidate List, which is an ArrayList of candidate elements
@@ -96,16 +202,6 @@ public abstract class AbstractGRASP<E> {
 	 */
 	public abstract ArrayList<E> makeCL();
 
-	/**
-	 * Creates the Restricted Candidate List, which is an ArrayList of the best
-	 * candidate elements that can enter a solution. The best candidates are
-	 * defined through a quality threshold, delimited by the GRASP
-	 * {@link #alpha} greedyness-randomness parameter.
-	 * 
-	 * @return The Restricted Candidate List.
-	 */
-	public abstract ArrayList<E> makeRCL();
-
 	/**
 	 * Updates the Candidate List according to the current solution
 	 * {@link #sol}. In other words, this method is responsible for
@@ -122,6 +218,17 @@ public abstract class AbstractGRASP<E> {
         return (ArrayList<E>) CL.clone();
     }
 
+    /**
+     * Returns the current Candidate List itself, without copying it. The list
+     * is owned by the solver and must not be modified by the caller. It is
+     * only valid until the next call to {@link #updateCL()}.
+     * 
+     * @return The current Candidate List.
+     */
+    public ArrayList<E> getCLView() {
+        return CL;
+    }
+
 	/**
 	 * Creates a new solution which is empty, i.e., does not contain any
 	 * element.
@@ -139,6 +246,17 @@ public abstract class AbstractGRASP<E> {
 	 */
 	public abstract Solution<E> localSearch();
 
+	/**
+	 * Creates an independent copy of this solver, to be used by a worker of
+	 * {@link ParallelGRASP}. The copy shares the parameters and the read-only
+	 * problem data of this solver, but has its own mutable state (current
+	 * solution, candidate lists and evaluator variables), so that both can run
+	 * iterations concurrently.
+	 * 
+	 * @return A solver that can run alongside this one.
+	 */
+	public abstract AbstractGRASP<E> createWorker();
+
 	/**
 	 * Constructor for the AbstractGRASP class.
 	 * 
@@ -152,7 +270,7 @@ public abstract class AbstractGRASP<E> {
      * @param timeoutInSeconds Maximum time in seconds that the GRASP can run. If null, there is no time limit.
 	 * @param maxIterationsWithoutImprovement Maximum number of iterations without improvement before stopping. If null, there is no limit.
 	 */
-	public AbstractGRASP(Evaluator<E> objFunction, Double alpha, Integer iterations, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) {
+	public AbstractGRASP(IncrementalEvaluator<E> objFunction, Double alpha, Integer iterations, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) {
 		this.ObjFunction = objFunction;
 		this.alpha = alpha;
 		this.iterations = iterations;
@@ -164,60 +282,393 @@ public abstract class AbstractGRASP<E> {
     public void setLogger(Logger logger) {
         this.logger = logger;
     }
+
+    public ElitePool<E> getElitePool() {
+        return elitePool;
+    }
+
+    /**
+     * Enables path relinking, guided by the solutions of the given pool, or
+     * disables it if the pool is null.
+     * 
+     * @param elitePool
+     *            The pool of elite solutions.
+     */
+    public void setElitePool(ElitePool<E> elitePool) {
+        this.elitePool = elitePool;
+    }
+
+    public AbstractConstructiveStrategy<E> getConstructiveStrategy() {
+        return constructiveStrategy;
+    }
+
+    public void setConstructiveStrategy(AbstractConstructiveStrategy<E> constructiveStrategy) {
+        this.constructiveStrategy = constructiveStrategy;
+    }
+
+    /**
+     * Returns the buffer the constructive strategies keep the insertion cost
+     * of each candidate in, which holds at least as many entries as the
+     * Candidate List. It is owned by the solver, so that the strategies stay
+     * stateless, and only valid during the current construction.
+     * 
+     * @return The buffer of the candidate costs.
+     */
+    public double[] getCandidateCosts() {
+        return candidateCosts;
+    }
+
+    public Double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Returns the random number generator of the current iteration, which
+     * the strategies plugged into the solver draw from.
+     * 
+     * @return The random number generator of the current iteration.
+     */
+    public SplittableRandom getRng() {
+        return rng;
+    }
+
+    /**
+     * Returns the index of the current iteration, which the strategies
+     * plugged into the solver can base their per-iteration choices on, so
+     * that these only depend on the seed, as the random numbers do.
+     * 
+     * @return The index of the current iteration.
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    public ReactiveAlpha getReactiveAlpha() {
+        return reactiveAlpha;
+    }
+
+    /**
+     * Makes the GRASP reactive, drawing alpha from the given distribution at
+     * each iteration, or makes alpha fixed again if the distribution is null.
+     * 
+     * @param reactiveAlpha
+     *            The distribution of alpha.
+     */
+    public void setReactiveAlpha(ReactiveAlpha reactiveAlpha) {
+        this.reactiveAlpha = reactiveAlpha;
+    }
+
+    public GRASPMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics the iterations of the solver are added to, or stops
+     * collecting them if the metrics are null.
+     * 
+     * @param metrics
+     *            The metrics of the run.
+     */
+    public void setMetrics(GRASPMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Counts delta evaluations into the metrics of the current iteration. The
+     * local searches and constructive heuristics keep their own counts while
+     * they run, and call this once they are done.
+     * 
+     * @param insertions
+     *            The number of insertion deltas evaluated.
+     * @param removals
+     *            The number of removal deltas evaluated.
+     * @param exchanges
+     *            The number of exchange deltas evaluated.
+     */
+    public void countEvaluations(long insertions, long removals, long exchanges) {
+        insertionEvaluations += insertions;
+        removalEvaluations += removals;
+        exchangeEvaluations += exchanges;
+    }
+
+    /**
+     * Counts evaluations of a whole solution, i.e., calls to the evaluate or
+     * bind methods of the evaluator, into the metrics of the current
+     * iteration.
+     * 
+     * @param n
+     *            The number of full evaluations.
+     */
+    public void countFullEvaluations(long n) {
+        fullEvaluations += n;
+    }
+
+    /**
+     * Counts an update of the Candidate List into the metrics of the current
+     * iteration. It is called by the implementations of {@link #updateCL()}.
+     */
+    protected void countCLUpdate() {
+        clUpdates++;
+    }
+
+    /**
+     * Counts moves applied by the local search or the path relinking into
+     * the metrics of the current iteration.
+     * 
+     * @param n
+     *            The number of moves applied.
+     */
+    public void countMoves(long n) {
+        movesAccepted += n;
+    }
+
+    /**
+     * Returns the deadline of the current run. Cancelling it, from any
+     * thread, stops the run within a few milliseconds, and the run returns
+     * the best solution found so far.
+     * 
+     * @return The deadline of the current run.
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the deadline checked by the phases of the iterations. It is
+     * replaced by a new one when {@link #solve()} starts, so this is for
+     * running iterations outside of it, as the workers of a
+     * {@link ParallelGRASP} do.
+     * 
+     * @param deadline
+     *            The deadline of the run.
+     */
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Adds a listener, told of each improvement of the incumbent as soon as
+     * it is found, from the next run on.
+     * 
+     * @param listener
+     *            The listener of the incumbent.
+     */
+    public void addIncumbentListener(IncumbentListener<E> listener) {
+        incumbentListeners.add(listener);
+    }
+
+    public void removeIncumbentListener(IncumbentListener<E> listener) {
+        incumbentListeners.remove(listener);
+    }
+
+    /**
+     * Makes {@link #solve()} and {@link #resume(Path, ElementCodec)}
+     * checkpoint the run between iterations, once the given interval has
+     * passed since the last checkpoint, and when the run ends. A checkpoint
+     * only holds the state of the run, a few kilobytes, and takes a few
+     * milliseconds to write, most of them syncing it to the disk, so an
+     * interval of a minute or so keeps its cost negligible. The file is
+     * replaced atomically, so it always holds a whole checkpoint.
+     * The {@link ParallelGRASP} does not checkpoint its runs.
+     * 
+     * @param file
+     *            The checkpoint file, or null to stop checkpointing.
+     * @param intervalInSeconds
+     *            The minimum time between two checkpoints, 0 to write one
+     *            after every iteration.
+     * @param codec
+     *            The codec of the elements of the solutions written to the
+     *            checkpoints, required unless the file is null.
+     * @throws IllegalArgumentException
+     *             If there is a file but no codec.
+     */
+    public void setCheckpoints(Path file, long intervalInSeconds, ElementCodec<E> codec) {
+        if (file != null && codec == null)
+            throw new IllegalArgumentException("Checkpointing " + file + " needs an element codec");
+        this.checkpointFile = file;
+        this.checkpointIntervalNanos = intervalInSeconds * 1_000_000_000L;
+        this.checkpointCodec = codec;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Starts a run: its clock, its {@link #deadline} and its metrics.
+     * 
+     * @param deadline
+     *            The deadline of the run.
+     * @param elapsedNanos
+     *            The time the run already spent, when it is resumed.
+     */
+    void startRun(Deadline deadline, long elapsedNanos) {
+        this.deadline = deadline;
+        runStartNanos = System.nanoTime() - elapsedNanos;
+        notifiedCost = Double.POSITIVE_INFINITY;
+        if (metrics != null)
+            metrics.start();
+    }
+
+    /**
+     * Tells the listeners that the incumbent improved, and records it into
+     * the metrics. The workers of a {@link ParallelGRASP} report their
+     * improvements concurrently, so an incumbent is only taken if it is
+     * better than the last one, and its event queued, under the monitor of
+     * the solver. The listeners are called outside of it, by the one thread
+     * that delivers the queued events in order while the others only queue
+     * theirs, which keeps the events in order of cost and one at a time
+     * without holding up the other workers.
+     * 
+     * @param incumbent
+     *            The new incumbent.
+     * @param iteration
+     *            The iteration that found it.
+     */
+    void incumbentImproved(Solution<E> incumbent, int iteration) {
+        synchronized (this) {
+            if (incumbent.cost >= notifiedCost)
+                return;
+            notifiedCost = incumbent.cost;
+            if (metrics != null)
+                metrics.recordImprovement(incumbent.cost);
+            if (incumbentListeners.isEmpty())
+                return;
+            pendingEvents.add(new IncumbentEvent<E>(incumbent, iteration, System.nanoTime() - runStartNanos, deadline));
+            if (deliveringEvents)
+                return;
+            deliveringEvents = true;
+        }
+        try {
+            while (true) {
+                IncumbentEvent<E> event;
+                synchronized (this) {
+                    event = pendingEvents.poll();
+                    if (event == null) {
+                        deliveringEvents = false;
+                        return;
+                    }
+                }
+                for (IncumbentListener<E> listener : incumbentListeners) {
+                    listener.incumbentImproved(event);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                pendingEvents.clear();
+                deliveringEvents = false;
+            }
+            throw e;
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed from which the random number streams of this solver
+     * derive.
+     * 
+     * @param seed
+     *            The seed of the solver.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.rng = new SplittableRandom(seed);
+    }
+
+	/**
+	 * Prepares the solver to run the given iteration, by deriving the random
+	 * number stream of the iteration from {@link #seed}. In a reactive GRASP,
+	 * the alpha of the iteration is drawn as well.
+	 * 
+	 * @param iteration
+	 *            The index of the iteration about to be run.
+	 */
+	public void startIteration(int iteration) {
+		this.iteration = iteration;
+		// Golden-ratio increments keep the derived seeds well apart
+		rng = new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (iteration + 1L));
+		if (reactiveAlpha != null) {
+			alphaIndex = reactiveAlpha.choose(rng);
+			alpha = reactiveAlpha.getValue(alphaIndex);
+		}
+	}
+
+	/**
+	 * Concludes the current iteration, once its solution is final. In a
+	 * reactive GRASP, the cost of the solution is recorded for the alpha of
+	 * the iteration. The counts and phase times of the iteration are added to
+	 * the {@link #metrics}, if they are collected.
+	 */
+	public void endIteration() {
+		if (reactiveAlpha != null && reactiveAlpha.record(alphaIndex, sol.cost) && verbose)
+			logger.info("Reactive alpha distribution: " + reactiveAlpha);
+		if (metrics != null) {
+			metrics.addEvaluations(insertionEvaluations, removalEvaluations, exchangeEvaluations);
+			metrics.addIteration(fullEvaluations, clUpdates, movesAccepted,
+					constructiveNanos, localSearchNanos, pathRelinkingNanos);
+		}
+		insertionEvaluations = removalEvaluations = exchangeEvaluations = 0L;
+		fullEvaluations = clUpdates = movesAccepted = 0L;
+	}
+
+	/**
+	 * Runs a whole iteration: the constructive heuristic, the local search
+	 * and the path relinking, between {@link #startIteration(int)} and
+	 * {@link #endIteration()}. The phases left once the {@link #deadline}
+	 * expired are skipped. The phases are timed only when the
+	 * {@link #metrics} are collected.
+	 * 
+	 * @param iteration
+	 *            The index of the iteration to be run.
+	 */
+	public void runIteration(int iteration) {
+		startIteration(iteration);
+		if (metrics == null) {
+			constructiveHeuristic();
+			if (!deadline.isExpired())
+				localSearch();
+			if (!deadline.isExpired())
+				pathRelinking();
+		} else {
+			long t0 = System.nanoTime();
+			constructiveHeuristic();
+			long t1 = System.nanoTime();
+			if (!deadline.isExpired())
+				localSearch();
+			long t2 = System.nanoTime();
+			if (!deadline.isExpired())
+				pathRelinking();
+			long t3 = System.nanoTime();
+			constructiveNanos = t1 - t0;
+			localSearchNanos = t2 - t1;
+			pathRelinkingNanos = t3 - t2;
+		}
+		endIteration();
+	}
 	
 	/**
 	 * The GRASP constructive heuristic, which is responsible for building a
 	 * feasible solution by selecting in a greedy-random fashion, candidate
-	 * elements to enter the solution.
+	 * elements to enter the solution. The selection itself is delegated to
+	 * the {@link #constructiveStrategy}, starting from an empty solution, and
+	 * stops early, with the candidates inserted so far, if the
+	 * {@link #deadline} expires.
 	 * 
 	 * @return A feasible solution to the problem being minimized.
 	 */
 	public Solution<E> constructiveHeuristic() {
 
 		CL = makeCL();
-		RCL = makeRCL();
+		if (candidateCosts == null || candidateCosts.length < CL.size())
+			candidateCosts = new double[CL.size()];
 		sol = createEmptySol();
-		cost = Double.POSITIVE_INFINITY;
-
-		/* Main loop, which repeats until the stopping criteria is reached. */
-		while (!constructiveStopCriteria()) {
-
-			double maxCost = Double.NEGATIVE_INFINITY, minCost = Double.POSITIVE_INFINITY;
-			cost = ObjFunction.evaluate(sol);
-			updateCL();
-
-			/*
-			 * Explore all candidate elements to enter the solution, saving the
-			 * highest and lowest cost variation achieved by the candidates.
-			 */
-			for (E c : CL) {
-				Double deltaCost = ObjFunction.evaluateInsertionCost(c, sol);
-				if (deltaCost < minCost)
-					minCost = deltaCost;
-				if (deltaCost > maxCost)
-					maxCost = deltaCost;
-			}
-
-			/*
-			 * Among all candidates, insert into the RCL those with the highest
-			 * performance using parameter alpha as threshold.
-			 */
-			for (E c : CL) {
-				Double deltaCost = ObjFunction.evaluateInsertionCost(c, sol);
-				if (deltaCost <= minCost + alpha * (maxCost - minCost)) {
-					RCL.add(c);
-				}
-			}
-
-			/* Choose a candidate randomly from the RCL */
-			int rndIndex = rng.nextInt(RCL.size());
-			E inCand = RCL.get(rndIndex);
-			CL.remove(inCand);
-			sol.add(inCand);
-			ObjFunction.evaluate(sol);
-			RCL.clear();
-
-		}
+		ObjFunction.bind(sol);
+		countFullEvaluations(1);
+		constructiveStrategy.constructiveHeuristic(ObjFunction, sol, this);
+		cost = sol.cost;
 
 		return sol;
 	}
@@ -225,63 +676,259 @@ public abstract class AbstractGRASP<E> {
 	/**
 	 * The GRASP mainframe. It consists of a loop, in which each iteration goes
 	 * through the constructive heuristic and local search. The best solution is
-	 * returned as result.
+	 * returned as result. The run is bounded by a {@link #deadline} of
+	 * {@link #timeoutInSeconds}, which interrupts the iteration running when
+	 * it expires. Each improvement of the best solution is passed on to the
+	 * {@link #incumbentListeners} as soon as it is found.
 	 * 
 	 * @return The best feasible solution obtained throughout all iterations.
 	 */
 	public Solution<E> solve() {
-        long startTime = System.currentTimeMillis();
 		bestSol = createEmptySol();
-		int iterationsWithoutImprovement = 0;
+		return run(0, 0, 0L);
+	}
+
+	/**
+	 * Resumes a run from its checkpoint (see
+	 * {@link #setCheckpoints(Path, long, ElementCodec)}), on a solver set up as
+	 * the one that wrote it. The run goes on from the iteration after the checkpoint, with
+	 * its best solution, its counters, the distribution of its reactive alpha
+	 * and its elite pool, and the time it had spent counts against its
+	 * timeout. The iterations are the same as if the run had never been
+	 * interrupted, while the metrics only cover the resumed part.
+	 * 
+	 * @param checkpoint
+	 *            The checkpoint file.
+	 * @param codec
+	 *            The codec of the elements, the one the checkpoint was
+	 *            written with.
+	 * @return The best feasible solution obtained throughout all iterations,
+	 *         before and after the checkpoint.
+	 * @throws IOException
+	 *             If the checkpoint cannot be read, or is not one of a run of
+	 *             this solver.
+	 */
+	public Solution<E> resume(Path checkpoint, ElementCodec<E> codec) throws IOException {
+		if (codec == null)
+			throw new IllegalArgumentException("Resuming from " + checkpoint + " needs an element codec");
+		GRASPCheckpoint state = GRASPCheckpoint.read(checkpoint, this, codec);
+		if (verbose)
+			logger.info("Resuming at iteration " + state.nextIteration + " from " + checkpoint + ", BestSol = " + bestSol);
+		return run(state.nextIteration, state.iterationsWithoutImprovement, state.elapsedNanos);
+	}
+
+	/**
+	 * The main loop of {@link #solve()} and
+	 * {@link #resume(Path, ElementCodec)}, from the
+	 * given iteration on.
+	 */
+	private Solution<E> run(int firstIteration, int iterationsWithoutImprovement, long elapsedNanos) {
+		startRun(timeoutInSeconds == null ? Deadline.unbounded()
+				: Deadline.afterNanos(timeoutInSeconds * 1_000_000_000L - elapsedNanos), elapsedNanos);
+		long lastCheckpoint = System.nanoTime();
 
-        int i = 0;
+        int i = firstIteration, nextIteration = iterations;
 		for (; i < iterations; i++) {
-			constructiveHeuristic();
-			localSearch();
+			runIteration(i);
 			if (bestSol.cost > sol.cost) {
-				bestSol = new Solution<E>(sol);
+				bestSol = sol.copy();
 				iterationsWithoutImprovement = 0; // Reset counter when improvement is found
 				if (verbose)
 					logger.info("(Iter. " + i + ") BestSol = " + bestSol);
+				incumbentImproved(bestSol, i);
 			} else {
 				iterationsWithoutImprovement++; // Increment counter when no improvement
 			}
+
+			if (checkpointFile != null && System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+				checkpoint(i + 1, iterationsWithoutImprovement);
+				lastCheckpoint = System.nanoTime();
+			}
 			
 			// Check if maximum iterations without improvement limit is reached
 			if (maxIterationsWithoutImprovement != null && iterationsWithoutImprovement >= maxIterationsWithoutImprovement) {
 				if (verbose)
 					logger.info("Maximum iterations without improvement reached: " + maxIterationsWithoutImprovement);
+				nextIteration = i + 1;
 				break;
 			}
 			
-			if (timeoutInSeconds != null) {
-				long elapsedTime = System.currentTimeMillis() - startTime;
-				if (elapsedTime > timeoutInSeconds * 1000) {
-					logger.info("Timeout reached");
-					break;
-				}
+			if (deadline.isExpired()) {
+				logger.info(deadline.isCancelled() ? "Run cancelled" : "Timeout reached");
+				nextIteration = i + 1;
+				break;
 			}
 		}
+		if (checkpointFile != null)
+			checkpoint(nextIteration, iterationsWithoutImprovement);
+		if (metrics != null)
+			metrics.finish();
         if (verbose) {
             if (i == iterations) {
                 logger.info("GRASP finished after reaching the maximum number of iterations: " + iterations);
             }
             logger.info("GRASP finished after " + i + " iterations.");
             logger.info("Best solution found: " + bestSol);
+            if (reactiveAlpha != null)
+                logger.info("Reactive alpha distribution: " + reactiveAlpha);
+            if (metrics != null)
+                logger.info("Metrics: " + metrics.toJson());
         }
 
 		return bestSol;
 	}
 
 	/**
-	 * A standard stopping criteria for the constructive heuristic is to repeat
-	 * until the current solution improves by inserting a new candidate
-	 * element.
+	 * Writes the checkpoint of the run, between two iterations. A failure is
+	 * logged rather than thrown, since the run itself can go on.
+	 */
+	private void checkpoint(int nextIteration, int iterationsWithoutImprovement) {
+		try {
+			GRASPCheckpoint.write(checkpointFile, this, checkpointCodec, nextIteration, iterationsWithoutImprovement,
+					System.nanoTime() - runStartNanos);
+		} catch (IOException e) {
+			logger.warning("Could not write the checkpoint " + checkpointFile + ": " + e);
+		}
+	}
+
+	/**
+	 * The path relinking phase, run after the local search when an
+	 * {@link #elitePool} is set. It walks from the current solution towards an
+	 * elite solution picked at random, and if the walk goes through a
+	 * solution better than the current one, the best solution of the walk
+	 * becomes the current solution, after a local search of its own. The
+	 * current solution is then offered to the pool.
+	 * 
+	 * @return The current solution, possibly improved.
+	 */
+	public Solution<E> pathRelinking() {
+		if (elitePool == null)
+			return sol;
+
+		Solution<E> guide = elitePool.select(rng);
+		if (guide != null && relink(guide))
+			localSearch();
+		elitePool.offer(sol);
+		return sol;
+	}
+
+	/**
+	 * Walks from the current solution towards a guiding solution, applying at
+	 * each step the best of the insertions and removals that bring the
+	 * solution closer to the guide, as given by the incremental deltas. Moves
+	 * rejected by {@link #isFeasibleInsertion(Object)} or
+	 * {@link #isFeasibleRemoval(Object)} are skipped, so the walk only goes
+	 * through feasible solutions. The walk stops one move away from the
+	 * guide, when no feasible move is left, or when the {@link #deadline}
+	 * expires.
+	 * 
+	 * @param guide
+	 *            The guiding solution, which is not modified.
+	 * @return true if the walk improved on the current solution, which is
+	 *         then replaced by the best solution of the walk. Otherwise, the
+	 *         current solution is left as it was.
+	 */
+	protected boolean relink(Solution<E> guide) {
+		ArrayList<E> toInsert = new ArrayList<E>();
+		ArrayList<E> toRemove = new ArrayList<E>();
+		for (int k = 0; k < guide.size(); k++) {
+			if (!sol.contains(guide.get(k)))
+				toInsert.add(guide.get(k));
+		}
+		for (int k = 0; k < sol.size(); k++) {
+			if (!guide.contains(sol.get(k)))
+				toRemove.add(sol.get(k));
+		}
+		if (toInsert.size() + toRemove.size() < 2)
+			return false;
+
+		Solution<E> start = sol.copy();
+		Solution<E> best = null;
+		long insertions = 0, removals = 0, moves = 0, checkedAt = 0;
+		ObjFunction.bind(sol);
+		while (toInsert.size() + toRemove.size() > 1) {
+			double minDelta = Double.POSITIVE_INFINITY;
+			int bestMove = -1;
+			for (int k = 0; k < toInsert.size(); k++) {
+				E elem = toInsert.get(k);
+				if (isFeasibleInsertion(elem)) {
+					insertions++;
+					double deltaCost = ObjFunction.evaluateInsertionDelta(elem);
+					if (deltaCost < minDelta) {
+						minDelta = deltaCost;
+						bestMove = k;
+					}
+				}
+			}
+			for (int k = 0; k < toRemove.size(); k++) {
+				E elem = toRemove.get(k);
+				if (isFeasibleRemoval(elem)) {
+					removals++;
+					double deltaCost = ObjFunction.evaluateRemovalDelta(elem);
+					if (deltaCost < minDelta) {
+						minDelta = deltaCost;
+						bestMove = toInsert.size() + k;
+					}
+				}
+			}
+			if (bestMove < 0)
+				break;
+
+			// The order of the remaining moves does not matter, so they are swap-removed
+			if (bestMove < toInsert.size()) {
+				ObjFunction.applyInsertion(swapRemove(toInsert, bestMove));
+			} else {
+				ObjFunction.applyRemoval(swapRemove(toRemove, bestMove - toInsert.size()));
+			}
+			moves++;
+			if (sol.cost < (best != null ? best.cost : start.cost))
+				best = sol.copy();
+			if (insertions + removals - checkedAt >= Deadline.CHECK_PERIOD) {
+				checkedAt = insertions + removals;
+				if (deadline.isExpired())
+					break;
+			}
+		}
+
+		countEvaluations(insertions, removals, 0);
+		countFullEvaluations(1);
+		countMoves(moves);
+
+		sol = (best != null) ? best : start;
+		return best != null;
+	}
+
+	private static <T> T swapRemove(ArrayList<T> list, int index) {
+		T elem = list.get(index);
+		list.set(index, list.get(list.size() - 1));
+		list.remove(list.size() - 1);
+		return elem;
+	}
+
+	/**
+	 * Tells whether inserting an element into the current solution keeps it
+	 * feasible, while the evaluator is bound to it. Used by the path
+	 * relinking, it accepts every insertion unless overridden.
+	 * 
+	 * @param elem
+	 *            An element not in the current solution.
+	 * @return true if the insertion is feasible.
+	 */
+	protected boolean isFeasibleInsertion(E elem) {
+		return true;
+	}
+
+	/**
+	 * Tells whether removing an element from the current solution keeps it
+	 * feasible, while the evaluator is bound to it. Used by the path
+	 * relinking, it accepts every removal unless overridden.
 	 * 
-	 * @return true if the criteria is met.
+	 * @param elem
+	 *            An element of the current solution.
+	 * @return true if the removal is feasible.
 	 */
-	public Boolean constructiveStopCriteria() {
-		return (cost > sol.cost) ? false : true;
+	protected boolean isFeasibleRemoval(E elem) {
+		return true;
 	}
 
 }
@@ -0,0 +1,106 @@
+package metaheuristics.grasp;
+
+/**
+ * The deadline of a run of the GRASP, which doubles as a cancellation token.
+ * It expires when its time budget, measured with {@link System#nanoTime()},
+ * runs out, or as soon as it is cancelled. The solver checks it after every
+ * iteration, and the constructive heuristics, local searches and path
+ * relinking check it while they run, so that a run stops within a few
+ * milliseconds of its budget, even in the middle of a long descent. The
+ * solution of an interrupted phase is still feasible, and is compared with
+ * the incumbent as any other.
+ *
+ * Reading the clock takes a few tens of nanoseconds, which is more than some
+ * moves take on the small instances, so the phases only check the deadline
+ * once every {@link #CHECK_PERIOD} delta evaluations.
+ *
+ * A deadline can be checked and cancelled from any thread. The workers of a
+ * {@link ParallelGRASP} share the deadline of the run.
+ */
+public class Deadline {
+
+	/**
+	 * the number of delta evaluations a phase runs between two checks of the
+	 * deadline, a few tens of microseconds on the dense instances
+	 */
+	public static final long CHECK_PERIOD = 4096;
+
+	/**
+	 * the value of {@link System#nanoTime()} at which the deadline expires
+	 */
+	private final long expiresAt;
+
+	/**
+	 * false if the deadline only expires when it is cancelled
+	 */
+	private final boolean bounded;
+
+	private volatile boolean cancelled;
+
+	private Deadline(long expiresAt, boolean bounded) {
+		this.expiresAt = expiresAt;
+		this.bounded = bounded;
+	}
+
+	/**
+	 * @return A deadline that only expires when it is cancelled.
+	 */
+	public static Deadline unbounded() {
+		return new Deadline(0L, false);
+	}
+
+	/**
+	 * @param nanos
+	 *            The time budget, in nanoseconds, from now.
+	 * @return A deadline expiring once the budget runs out.
+	 */
+	public static Deadline afterNanos(long nanos) {
+		return new Deadline(System.nanoTime() + nanos, true);
+	}
+
+	/**
+	 * @param seconds
+	 *            The time budget, in seconds, from now. If null, there is no
+	 *            time limit.
+	 * @return A deadline expiring once the budget runs out.
+	 */
+	public static Deadline afterSeconds(Long seconds) {
+		return (seconds == null) ? unbounded() : afterNanos(seconds * 1_000_000_000L);
+	}
+
+	/**
+	 * Makes the deadline expire now. The run it bounds stops at the next
+	 * check.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return true if the deadline was cancelled, rather than reached.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return true if the deadline was cancelled or its budget ran out.
+	 */
+	public boolean isExpired() {
+		return cancelled || (bounded && System.nanoTime() - expiresAt >= 0);
+	}
+
+	/**
+	 * @return The time left before the deadline, in nanoseconds, which is
+	 *         {@link Long#MAX_VALUE} if it has no time limit and 0 once it has
+	 *         expired.
+	 */
+	public long remainingNanos() {
+		if (cancelled)
+			return 0L;
+		if (!bounded)
+			return Long.MAX_VALUE;
+		return Math.max(0L, expiresAt - System.nanoTime());
+	}
+
+}
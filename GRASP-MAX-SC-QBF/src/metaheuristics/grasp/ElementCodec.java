@@ -0,0 +1,35 @@
+package metaheuristics.grasp;
+
+/**
+ * Codes the elements of the solutions as ints, so that a checkpoint of a run
+ * can hold its solutions (see
+ * {@link AbstractGRASP#setCheckpoints(java.nio.file.Path, long, ElementCodec)}).
+ * The codes are written to the file, so a codec must give the same code to
+ * the same element from one process to the next.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public interface ElementCodec<E> {
+
+	/**
+	 * Encodes an element.
+	 *
+	 * @param elem
+	 *            An element of a solution.
+	 * @return The code of the element.
+	 */
+	int encode(E elem);
+
+	/**
+	 * Decodes an element encoded by {@link #encode(Object)}.
+	 *
+	 * @param code
+	 *            The code of an element.
+	 * @return The element.
+	 * @throws IllegalArgumentException
+	 *             If no element has this code.
+	 */
+	E decode(int code);
+
+}
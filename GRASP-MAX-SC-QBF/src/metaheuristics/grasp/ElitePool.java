@@ -0,0 +1,179 @@
+package metaheuristics.grasp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import solutions.Solution;
+
+/**
+ * A bounded pool of elite solutions, which serve as guides for the path
+ * relinking phase of the GRASP (see {@link AbstractGRASP#pathRelinking()}).
+ * To keep the pool diverse, a solution only enters it if it differs from
+ * every elite solution in at least {@link #minDistance} elements, unless it
+ * is better than all of them. Once the pool is full, a solution must also be
+ * better than the worst elite solution, and it replaces the most similar one
+ * among the elite solutions that are not better than it.
+ *
+ * The pool keeps its own copies of the solutions it accepts, which are never
+ * modified afterwards. It is thread-safe, so it can be shared by the workers
+ * of a {@link ParallelGRASP}.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public class ElitePool<E> {
+
+	/**
+	 * the maximum number of elite solutions
+	 */
+	private final int capacity;
+
+	/**
+	 * the minimum symmetric difference between a new solution and the elite
+	 * ones, see {@link #symmetricDifference(Solution, Solution)}
+	 */
+	private final int minDistance;
+
+	/**
+	 * the elite solutions
+	 */
+	private final ArrayList<Solution<E>> solutions;
+
+	/**
+	 * Constructor for the ElitePool class.
+	 *
+	 * @param capacity
+	 *            The maximum number of elite solutions.
+	 * @param minDistance
+	 *            The minimum number of elements by which a new solution must
+	 *            differ from every elite solution.
+	 */
+	public ElitePool(int capacity, int minDistance) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity of the elite pool must be positive: " + capacity);
+		this.capacity = capacity;
+		this.minDistance = minDistance;
+		this.solutions = new ArrayList<Solution<E>>(capacity);
+	}
+
+	/**
+	 * Offers a solution to the pool. A copy of the solution is stored if it
+	 * is accepted.
+	 *
+	 * @param sol
+	 *            The candidate solution.
+	 * @return true if the solution entered the pool.
+	 */
+	public synchronized boolean offer(Solution<E> sol) {
+		int worst = -1;
+		boolean isBest = true;
+		for (int k = 0; k < solutions.size(); k++) {
+			Solution<E> elite = solutions.get(k);
+			if (worst < 0 || elite.cost > solutions.get(worst).cost)
+				worst = k;
+			if (elite.cost <= sol.cost)
+				isBest = false;
+		}
+		if (solutions.size() == capacity && sol.cost >= solutions.get(worst).cost)
+			return false;
+
+		// The closest of the elite solutions that are not better than the candidate
+		int closest = -1, closestDistance = Integer.MAX_VALUE;
+		for (int k = 0; k < solutions.size(); k++) {
+			Solution<E> elite = solutions.get(k);
+			int distance = symmetricDifference(sol, elite);
+			if (distance == 0 || (distance < minDistance && !isBest))
+				return false;
+			if (elite.cost >= sol.cost && distance < closestDistance) {
+				closest = k;
+				closestDistance = distance;
+			}
+		}
+
+		if (solutions.size() < capacity)
+			solutions.add(sol.copy());
+		else
+			solutions.set(closest, sol.copy());
+		return true;
+	}
+
+	/**
+	 * Picks an elite solution uniformly at random.
+	 *
+	 * @param rng
+	 *            The random number generator of the caller.
+	 * @return an elite solution, which must not be modified, or null if the
+	 *         pool is empty.
+	 */
+	public synchronized Solution<E> select(SplittableRandom rng) {
+		if (solutions.isEmpty())
+			return null;
+		return solutions.get(rng.nextInt(solutions.size()));
+	}
+
+	/**
+	 * @return the best elite solution, which must not be modified, or null if
+	 *         the pool is empty.
+	 */
+	public synchronized Solution<E> getBest() {
+		Solution<E> best = null;
+		for (Solution<E> elite : solutions) {
+			if (best == null || elite.cost < best.cost)
+				best = elite;
+		}
+		return best;
+	}
+
+	/**
+	 * @return a snapshot of the elite solutions, which must not be modified.
+	 */
+	public synchronized List<Solution<E>> getSolutions() {
+		return new ArrayList<Solution<E>>(solutions);
+	}
+
+	/**
+	 * @return the number of elite solutions.
+	 */
+	public synchronized int size() {
+		return solutions.size();
+	}
+
+	/**
+	 * Empties the pool.
+	 */
+	public synchronized void clear() {
+		solutions.clear();
+	}
+
+	/**
+	 * Replaces the elite solutions with those of a checkpoint of the run,
+	 * keeping their order, on which {@link #select(SplittableRandom)}
+	 * depends.
+	 */
+	synchronized void restore(List<Solution<E>> elites) {
+		solutions.clear();
+		solutions.addAll(elites);
+	}
+
+	/**
+	 * Computes the number of elements that belong to exactly one of two
+	 * solutions, which is also the number of insertions and removals that
+	 * turn one into the other.
+	 *
+	 * @param a
+	 *            The first solution.
+	 * @param b
+	 *            The second solution.
+	 * @return the size of the symmetric difference of a and b.
+	 */
+	public static <E> int symmetricDifference(Solution<E> a, Solution<E> b) {
+		int common = 0;
+		for (int k = 0; k < a.size(); k++) {
+			if (b.contains(a.get(k)))
+				common++;
+		}
+		return a.size() + b.size() - 2 * common;
+	}
+
+}
@@ -0,0 +1,189 @@
+package metaheuristics.grasp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import solutions.Solution;
+
+/**
+ * The checkpoint of a sequential GRASP run, from which
+ * {@link AbstractGRASP#resume(Path, ElementCodec)} continues it. Since each iteration draws
+ * from a random number stream derived from the seed and its index, the seed
+ * and the index of the next iteration are all the random state there is, and
+ * a resumed run goes through the same iterations as a run that was never
+ * interrupted. The file holds, in this order:
+ * <ul>
+ * <li>magic number, format version, seed, index of the next iteration,
+ * iterations without improvement and time spent so far, in nanoseconds;</li>
+ * <li>the best solution;</li>
+ * <li>a flag telling whether the state of the {@link ReactiveAlpha} follows,
+ * and that state;</li>
+ * <li>the number of elite solutions, -1 if the run has no
+ * {@link ElitePool}, followed by the elite solutions.</li>
+ * </ul>
+ * A solution is written as its cost, its size and the codes of its
+ * elements, given by the {@link ElementCodec} of the run. The file
+ * is written to a temporary file next to it first, which is then moved over
+ * it, so a crash while writing leaves the previous checkpoint whole.
+ */
+class GRASPCheckpoint {
+
+	/**
+	 * "GRCK"
+	 */
+	static final int MAGIC = 0x4752434B;
+
+	static final int VERSION = 1;
+
+	/**
+	 * the index of the iteration the run continues with
+	 */
+	final int nextIteration;
+
+	final int iterationsWithoutImprovement;
+
+	/**
+	 * the time the run had spent, counted against its timeout
+	 */
+	final long elapsedNanos;
+
+	private GRASPCheckpoint(int nextIteration, int iterationsWithoutImprovement, long elapsedNanos) {
+		this.nextIteration = nextIteration;
+		this.iterationsWithoutImprovement = iterationsWithoutImprovement;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Writes the checkpoint of a run atomically.
+	 *
+	 * @param file
+	 *            the checkpoint file.
+	 * @param solver
+	 *            the solver running, between two iterations.
+	 * @param codec
+	 *            the codec of the elements of the solutions.
+	 * @param nextIteration
+	 *            the index of the iteration the run continues with.
+	 * @param iterationsWithoutImprovement
+	 *            the number of iterations since the last improvement.
+	 * @param elapsedNanos
+	 *            the time spent by the run.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	static <E> void write(Path file, AbstractGRASP<E> solver, ElementCodec<E> codec, int nextIteration,
+			int iterationsWithoutImprovement, long elapsedNanos) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(solver.seed);
+			out.writeInt(nextIteration);
+			out.writeInt(iterationsWithoutImprovement);
+			out.writeLong(elapsedNanos);
+			writeSolution(out, codec, solver.bestSol);
+			out.writeBoolean(solver.reactiveAlpha != null);
+			if (solver.reactiveAlpha != null)
+				solver.reactiveAlpha.writeState(out);
+			if (solver.elitePool == null) {
+				out.writeInt(-1);
+			} else {
+				List<Solution<E>> elites = solver.elitePool.getSolutions();
+				out.writeInt(elites.size());
+				for (Solution<E> elite : elites) {
+					writeSolution(out, codec, elite);
+				}
+			}
+			out.flush();
+			stream.getFD().sync();
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint, restoring the seed, the best solution, the
+	 * distribution of a reactive alpha and the elite pool of the solver,
+	 * which must have been set up as the one that wrote it.
+	 *
+	 * @param file
+	 *            the checkpoint file.
+	 * @param solver
+	 *            the solver the run is resumed on.
+	 * @param codec
+	 *            the codec of the elements of the solutions.
+	 * @return the counters of the run.
+	 * @throws IOException
+	 *             Necessary for I/O operations, and thrown as well if the
+	 *             file is not a checkpoint of a run of the solver.
+	 */
+	static <E> GRASPCheckpoint read(Path file, AbstractGRASP<E> solver, ElementCodec<E> codec) throws IOException {
+		try (InputStream stream = Files.newInputStream(file);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a GRASP checkpoint: " + file);
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported GRASP checkpoint version: " + version);
+			long seed = in.readLong();
+			GRASPCheckpoint checkpoint = new GRASPCheckpoint(in.readInt(), in.readInt(), in.readLong());
+			Solution<E> bestSol = readSolution(in, solver, codec);
+
+			if (in.readBoolean() != (solver.reactiveAlpha != null))
+				throw new IOException("The checkpoint and the solver do not agree on a reactive alpha");
+			if (solver.reactiveAlpha != null)
+				solver.reactiveAlpha.readState(in);
+
+			int nElites = in.readInt();
+			if ((nElites >= 0) != (solver.elitePool != null))
+				throw new IOException("The checkpoint and the solver do not agree on an elite pool");
+			if (solver.elitePool != null) {
+				List<Solution<E>> elites = new ArrayList<Solution<E>>();
+				for (int k = 0; k < nElites; k++) {
+					elites.add(readSolution(in, solver, codec));
+				}
+				solver.elitePool.restore(elites);
+			}
+
+			solver.setSeed(seed);
+			solver.bestSol = bestSol;
+			return checkpoint;
+		}
+	}
+
+	private static <E> void writeSolution(DataOutputStream out, ElementCodec<E> codec, Solution<E> sol)
+			throws IOException {
+		out.writeDouble(sol.cost);
+		out.writeInt(sol.size());
+		for (int k = 0; k < sol.size(); k++) {
+			out.writeInt(codec.encode(sol.get(k)));
+		}
+	}
+
+	private static <E> Solution<E> readSolution(DataInputStream in, AbstractGRASP<E> solver, ElementCodec<E> codec)
+			throws IOException {
+		double cost = in.readDouble();
+		int size = in.readInt();
+		Solution<E> sol = solver.createEmptySol();
+		try {
+			for (int k = 0; k < size; k++) {
+				sol.add(codec.decode(in.readInt()));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException("The checkpoint does not match the problem of the solver", e);
+		}
+		sol.cost = cost;
+		return sol;
+	}
+
+}
@@ -0,0 +1,397 @@
+package metaheuristics.grasp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a GRASP run: how many delta evaluations of each type, full
+ * evaluations, candidate list updates and accepted moves it took, how long
+ * the phases of its iterations took, and when its best solution was found.
+ * They are meant to show which phase dominates an instance, and to compare
+ * runs across versions of the code.
+ *
+ * The solvers do not touch the metrics on their hot paths: the counts of an
+ * iteration are accumulated by the solver itself, see
+ * {@link AbstractGRASP#countEvaluations(long, long, long)}, and added here
+ * once per iteration. The counters are {@link LongAdder}s and the histograms
+ * are lock-free, so the metrics can be shared by the workers of a
+ * {@link ParallelGRASP}.
+ *
+ * A summary of the run can be exported as JSON, see {@link #toJson()}, or as
+ * a CSV row, see {@link #toCsvRow()}.
+ */
+public class GRASPMetrics {
+
+	/**
+	 * the header of the CSV rows given by {@link #toCsvRow()}
+	 */
+	public static final String CSV_HEADER = "iterations,elapsedMs,iterationsPerSecond,timeToBestMs,bestCost,"
+			+ "insertionEvaluations,removalEvaluations,exchangeEvaluations,fullEvaluations,clUpdates,movesAccepted,"
+			+ "constructiveMeanUs,constructiveP50Us,constructiveP99Us,localSearchMeanUs,localSearchP50Us,localSearchP99Us,"
+			+ "pathRelinkingMeanUs";
+
+	private final LongAdder iterations = new LongAdder();
+
+	private final LongAdder insertionEvaluations = new LongAdder();
+
+	private final LongAdder removalEvaluations = new LongAdder();
+
+	private final LongAdder exchangeEvaluations = new LongAdder();
+
+	/**
+	 * the number of evaluations of a whole solution, i.e., of calls to
+	 * evaluate or bind
+	 */
+	private final LongAdder fullEvaluations = new LongAdder();
+
+	private final LongAdder clUpdates = new LongAdder();
+
+	/**
+	 * the number of moves applied by the local search and the path relinking
+	 */
+	private final LongAdder movesAccepted = new LongAdder();
+
+	/**
+	 * the time taken by each phase of the iterations, in nanoseconds
+	 */
+	private final Histogram constructiveTimes = new Histogram();
+
+	private final Histogram localSearchTimes = new Histogram();
+
+	private final Histogram pathRelinkingTimes = new Histogram();
+
+	/**
+	 * the time the run started and finished at, as given by
+	 * {@link System#nanoTime()}, 0 if it did not yet
+	 */
+	private volatile long startNanos, endNanos;
+
+	/**
+	 * the cost of the best solution, and the time from the start of the run
+	 * it was found at
+	 */
+	private double bestCost = Double.POSITIVE_INFINITY;
+
+	private long timeToBestNanos = -1L;
+
+	/**
+	 * Marks the start of the run, from which the elapsed time and the time to
+	 * the best solution are measured. A run restarted on the same metrics
+	 * keeps the counts of the previous runs.
+	 */
+	public void start() {
+		startNanos = System.nanoTime();
+		endNanos = 0L;
+	}
+
+	/**
+	 * Marks the end of the run.
+	 */
+	public void finish() {
+		endNanos = System.nanoTime();
+	}
+
+	/**
+	 * Adds the delta evaluations of the moves of each type.
+	 */
+	public void addEvaluations(long insertions, long removals, long exchanges) {
+		insertionEvaluations.add(insertions);
+		removalEvaluations.add(removals);
+		exchangeEvaluations.add(exchanges);
+	}
+
+	/**
+	 * Adds the counts of an iteration, along with the time each of its phases
+	 * took.
+	 *
+	 * @param fullEvaluations
+	 *            The number of evaluations of a whole solution.
+	 * @param clUpdates
+	 *            The number of updates of the candidate list.
+	 * @param moves
+	 *            The number of moves applied by the local search and the
+	 *            path relinking.
+	 * @param constructiveNanos
+	 *            The time taken by the constructive heuristic.
+	 * @param localSearchNanos
+	 *            The time taken by the local search.
+	 * @param pathRelinkingNanos
+	 *            The time taken by the path relinking, including the local
+	 *            search of its result.
+	 */
+	public void addIteration(long fullEvaluations, long clUpdates, long moves,
+			long constructiveNanos, long localSearchNanos, long pathRelinkingNanos) {
+		iterations.increment();
+		this.fullEvaluations.add(fullEvaluations);
+		this.clUpdates.add(clUpdates);
+		movesAccepted.add(moves);
+		constructiveTimes.record(constructiveNanos);
+		localSearchTimes.record(localSearchNanos);
+		pathRelinkingTimes.record(pathRelinkingNanos);
+	}
+
+	/**
+	 * Records that a new best solution was found. Improvements are rare, so
+	 * unlike the counters, this is synchronized.
+	 *
+	 * @param cost
+	 *            The cost of the new best solution.
+	 */
+	public synchronized void recordImprovement(double cost) {
+		if (cost < bestCost) {
+			bestCost = cost;
+			timeToBestNanos = System.nanoTime() - startNanos;
+		}
+	}
+
+	public long getIterations() {
+		return iterations.sum();
+	}
+
+	public long getInsertionEvaluations() {
+		return insertionEvaluations.sum();
+	}
+
+	public long getRemovalEvaluations() {
+		return removalEvaluations.sum();
+	}
+
+	public long getExchangeEvaluations() {
+		return exchangeEvaluations.sum();
+	}
+
+	public long getFullEvaluations() {
+		return fullEvaluations.sum();
+	}
+
+	public long getCLUpdates() {
+		return clUpdates.sum();
+	}
+
+	public long getMovesAccepted() {
+		return movesAccepted.sum();
+	}
+
+	public Histogram getConstructiveTimes() {
+		return constructiveTimes;
+	}
+
+	public Histogram getLocalSearchTimes() {
+		return localSearchTimes;
+	}
+
+	public Histogram getPathRelinkingTimes() {
+		return pathRelinkingTimes;
+	}
+
+	/**
+	 * @return the time elapsed since the start of the run, up to its end if
+	 *         it finished, in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		if (startNanos == 0L)
+			return 0L;
+		return ((endNanos != 0L) ? endNanos : System.nanoTime()) - startNanos;
+	}
+
+	public double getIterationsPerSecond() {
+		long elapsed = getElapsedNanos();
+		return (elapsed > 0L) ? getIterations() * 1e9 / elapsed : 0.0;
+	}
+
+	public synchronized double getBestCost() {
+		return bestCost;
+	}
+
+	/**
+	 * @return the time from the start of the run to the finding of the best
+	 *         solution, in nanoseconds, or -1 if no solution was recorded.
+	 */
+	public synchronized long getTimeToBestNanos() {
+		return timeToBestNanos;
+	}
+
+	/**
+	 * Gives a summary of the run as a JSON object, with the histograms of the
+	 * phases in full.
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder("{");
+		sb.append("\"iterations\":").append(getIterations());
+		sb.append(",\"elapsedMs\":").append(format(getElapsedNanos() / 1e6));
+		sb.append(",\"iterationsPerSecond\":").append(format(getIterationsPerSecond()));
+		sb.append(",\"timeToBestMs\":").append(json(getTimeToBestMs()));
+		sb.append(",\"bestCost\":").append(json(getBestCost()));
+		sb.append(",\"evaluations\":{\"insertion\":").append(getInsertionEvaluations());
+		sb.append(",\"removal\":").append(getRemovalEvaluations());
+		sb.append(",\"exchange\":").append(getExchangeEvaluations());
+		sb.append(",\"full\":").append(getFullEvaluations()).append("}");
+		sb.append(",\"clUpdates\":").append(getCLUpdates());
+		sb.append(",\"movesAccepted\":").append(getMovesAccepted());
+		sb.append(",\"phases\":{\"constructive\":").append(constructiveTimes.toJson());
+		sb.append(",\"localSearch\":").append(localSearchTimes.toJson());
+		sb.append(",\"pathRelinking\":").append(pathRelinkingTimes.toJson()).append("}");
+		return sb.append("}").toString();
+	}
+
+	/**
+	 * Gives a summary of the run as a CSV row, whose columns are those of
+	 * {@link #CSV_HEADER}. The phase times are in microseconds.
+	 */
+	public String toCsvRow() {
+		return String.join(",",
+				Long.toString(getIterations()),
+				format(getElapsedNanos() / 1e6),
+				format(getIterationsPerSecond()),
+				csv(getTimeToBestMs()),
+				csv(getBestCost()),
+				Long.toString(getInsertionEvaluations()),
+				Long.toString(getRemovalEvaluations()),
+				Long.toString(getExchangeEvaluations()),
+				Long.toString(getFullEvaluations()),
+				Long.toString(getCLUpdates()),
+				Long.toString(getMovesAccepted()),
+				format(constructiveTimes.getMean() / 1e3),
+				format(constructiveTimes.getPercentile(0.5) / 1e3),
+				format(constructiveTimes.getPercentile(0.99) / 1e3),
+				format(localSearchTimes.getMean() / 1e3),
+				format(localSearchTimes.getPercentile(0.5) / 1e3),
+				format(localSearchTimes.getPercentile(0.99) / 1e3),
+				format(pathRelinkingTimes.getMean() / 1e3));
+	}
+
+	/**
+	 * Writes the JSON summary of the run to a file.
+	 *
+	 * @param file
+	 *            The file to be written, replaced if it exists.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public void writeJson(Path file) throws IOException {
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
+		Files.write(file, (toJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private double getTimeToBestMs() {
+		long nanos = getTimeToBestNanos();
+		return (nanos >= 0L) ? nanos / 1e6 : Double.NaN;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	private static String json(double value) {
+		// JSON has no infinities, a run without solutions has no best cost
+		return Double.isInfinite(value) || Double.isNaN(value) ? "null" : format(value);
+	}
+
+	private static String csv(double value) {
+		return Double.isInfinite(value) || Double.isNaN(value) ? "" : format(value);
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	/**
+	 * A histogram of durations in nanoseconds, with a bucket per power of
+	 * two: bucket b counts the durations within [2^b, 2^(b+1)), bucket 0 the
+	 * durations below 2 as well. Recording is lock-free and takes a constant
+	 * time, and the percentiles are accurate within a factor of two, which is
+	 * enough to tell the phases apart and to catch regressions.
+	 */
+	public static class Histogram {
+
+		private static final int BUCKETS = 64;
+
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+		private final LongAdder total = new LongAdder();
+
+		public void record(long nanos) {
+			int bucket = 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1L));
+			counts.incrementAndGet(bucket);
+			total.add(Math.max(nanos, 0L));
+		}
+
+		public long getCount() {
+			long count = 0L;
+			for (int b = 0; b < BUCKETS; b++) {
+				count += counts.get(b);
+			}
+			return count;
+		}
+
+		/**
+		 * @return the sum of the durations recorded, in nanoseconds.
+		 */
+		public long getTotal() {
+			return total.sum();
+		}
+
+		/**
+		 * @return the mean duration, in nanoseconds.
+		 */
+		public double getMean() {
+			long count = getCount();
+			return (count > 0L) ? (double) getTotal() / count : 0.0;
+		}
+
+		/**
+		 * Gives an upper bound of a percentile of the durations: the upper
+		 * end of the bucket the percentile falls into.
+		 *
+		 * @param q
+		 *            The quantile, within the range [0,1].
+		 * @return the upper bound, in nanoseconds, or 0 if nothing was
+		 *         recorded.
+		 */
+		public double getPercentile(double q) {
+			long count = getCount();
+			if (count == 0L)
+				return 0.0;
+			long rank = Math.max(1L, (long) Math.ceil(q * count));
+			for (int b = 0; b < BUCKETS; b++) {
+				rank -= counts.get(b);
+				if (rank <= 0L)
+					return Math.scalb(1.0, b + 1);
+			}
+			return Math.scalb(1.0, BUCKETS);
+		}
+
+		/**
+		 * Gives the histogram as a JSON object, with the count, total and
+		 * mean, and the count of each non-empty bucket keyed by its lower
+		 * bound in nanoseconds.
+		 */
+		public String toJson() {
+			StringBuilder sb = new StringBuilder("{");
+			sb.append("\"count\":").append(getCount());
+			sb.append(",\"totalNs\":").append(getTotal());
+			sb.append(",\"meanNs\":").append(format(getMean()));
+			sb.append(",\"buckets\":{");
+			boolean first = true;
+			for (int b = 0; b < BUCKETS; b++) {
+				long n = counts.get(b);
+				if (n == 0L)
+					continue;
+				if (!first)
+					sb.append(",");
+				sb.append("\"").append(1L << b).append("\":").append(n);
+				first = false;
+			}
+			return sb.append("}}").toString();
+		}
+
+	}
+
+}
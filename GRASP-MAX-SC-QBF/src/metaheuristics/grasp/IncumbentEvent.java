@@ -0,0 +1,77 @@
+package metaheuristics.grasp;
+
+import solutions.Solution;
+
+/**
+ * An improvement of the incumbent of a GRASP run, passed to the
+ * {@link IncumbentListener}s of the solver. Within a run, each event has a
+ * lower cost than the previous one.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public class IncumbentEvent<E> {
+
+	private final Solution<E> solution;
+
+	private final int iteration;
+
+	private final long elapsedNanos;
+
+	private final Deadline deadline;
+
+	/**
+	 * Constructor for the IncumbentEvent class.
+	 *
+	 * @param solution
+	 *            The new incumbent.
+	 * @param iteration
+	 *            The iteration that found it.
+	 * @param elapsedNanos
+	 *            The time since the start of the run, in nanoseconds.
+	 * @param deadline
+	 *            The deadline of the run, cancelled to stop it.
+	 */
+	public IncumbentEvent(Solution<E> solution, int iteration, long elapsedNanos, Deadline deadline) {
+		this.solution = solution;
+		this.iteration = iteration;
+		this.elapsedNanos = elapsedNanos;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * @return The new incumbent. It is the solver's own copy, which it does
+	 *         not modify afterwards, and which must not be modified either.
+	 */
+	public Solution<E> getSolution() {
+		return solution;
+	}
+
+	public double getCost() {
+		return solution.cost;
+	}
+
+	public int getIteration() {
+		return iteration;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Stops the run, as if its timeout was reached: the iterations running
+	 * are interrupted within a few milliseconds, and the run returns its
+	 * incumbent, which is this solution unless a better one was found in the
+	 * meantime.
+	 */
+	public void requestStop() {
+		deadline.cancel();
+	}
+
+	@Override
+	public String toString() {
+		return "IncumbentEvent [iteration=" + iteration + ", elapsedMs=" + elapsedNanos / 1_000_000L + ", cost=" + solution.cost + "]";
+	}
+
+}
@@ -0,0 +1,29 @@
+package metaheuristics.grasp;
+
+/**
+ * Listener of the improvements of the incumbent of a GRASP run, which gets
+ * each new best solution as soon as it is found, instead of waiting for the
+ * run to end. A listener can stop the run once the solution is good enough,
+ * through {@link IncumbentEvent#requestStop()}.
+ *
+ * The listeners of a {@link ParallelGRASP} are called from the threads of the
+ * workers, one event at a time and in order of cost, so they need not be
+ * thread-safe. They are called outside of the monitor of the solver: while
+ * they run, they hold up the worker delivering the events, but the others
+ * only queue theirs and go on.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+@FunctionalInterface
+public interface IncumbentListener<E> {
+
+	/**
+	 * Called when the incumbent improves.
+	 *
+	 * @param event
+	 *            The new incumbent, along with the iteration that found it.
+	 */
+	void incumbentImproved(IncumbentEvent<E> event);
+
+}
@@ -0,0 +1,253 @@
+package metaheuristics.grasp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import solutions.Solution;
+
+/**
+ * Parallel multi-start executor for an {@link AbstractGRASP}. GRASP iterations
+ * are independent of each other except for the incumbent solution, so they
+ * are spread over a pool of workers, each one being a copy of the solver
+ * obtained through {@link AbstractGRASP#createWorker()}. The incumbent is
+ * shared through a lock-free atomic reference, and the stopping criteria of
+ * the solver (number of iterations, timeout and iterations without
+ * improvement) are applied globally, across all workers. The workers share
+ * the {@link Deadline} of the run, so the timeout interrupts the iterations
+ * running when it expires, on every worker. When path relinking
+ * is enabled, the workers share the elite pool of the solver as well, so
+ * which elite solution guides an iteration depends on the scheduling of the
+ * iterations. The same goes for the distribution of a reactive alpha. The
+ * workers add their iterations to the metrics of the solver, if it has any,
+ * and report the improvements of the incumbent to its listeners.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public class ParallelGRASP<E> {
+
+	/**
+	 * the solver whose parameters and problem data are used by the workers
+	 */
+	private final AbstractGRASP<E> solver;
+
+	/**
+	 * the number of workers running iterations concurrently
+	 */
+	private final int nWorkers;
+
+	/**
+	 * the factory of the threads running the workers
+	 */
+	private final ThreadFactory threadFactory;
+
+	/**
+	 * the best (incumbent) solution, shared by all workers
+	 */
+	private AtomicReference<Incumbent<E>> bestSol;
+
+	/**
+	 * the index of the next iteration to be run
+	 */
+	private AtomicInteger nextIteration;
+
+	/**
+	 * the number of iterations the workers finished
+	 */
+	private AtomicInteger iterationsRun;
+
+	/**
+	 * the number of iterations finished since the last improvement
+	 */
+	private AtomicInteger iterationsWithoutImprovement;
+
+	/**
+	 * set when a stopping criterion is met, telling the workers to finish
+	 */
+	private AtomicBoolean stop;
+
+	/**
+	 * Constructor for the ParallelGRASP class, running its workers on
+	 * platform threads.
+	 *
+	 * @param solver
+	 *            The solver to be run in parallel.
+	 * @param nWorkers
+	 *            The number of workers running iterations concurrently.
+	 */
+	public ParallelGRASP(AbstractGRASP<E> solver, int nWorkers) {
+		this(solver, nWorkers, Executors.defaultThreadFactory());
+	}
+
+	/**
+	 * Constructor for the ParallelGRASP class.
+	 *
+	 * @param solver
+	 *            The solver to be run in parallel.
+	 * @param nWorkers
+	 *            The number of workers running iterations concurrently.
+	 * @param threadFactory
+	 *            The factory of the threads running the workers. On runtimes
+	 *            that support them, a virtual thread factory can be given.
+	 */
+	public ParallelGRASP(AbstractGRASP<E> solver, int nWorkers, ThreadFactory threadFactory) {
+		if (nWorkers < 1)
+			throw new IllegalArgumentException("The number of workers must be positive: " + nWorkers);
+		this.solver = solver;
+		this.nWorkers = nWorkers;
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * The parallel GRASP mainframe. Each worker repeatedly claims the next
+	 * iteration, goes through the constructive heuristic and local search, and
+	 * offers its local optimum as the new incumbent, until a stopping
+	 * criterion is met.
+	 *
+	 * @return The best feasible solution obtained throughout all iterations.
+	 */
+	public Solution<E> solve() {
+		Deadline deadline = Deadline.afterSeconds(solver.timeoutInSeconds);
+		solver.startRun(deadline, 0L);
+		bestSol = new AtomicReference<Incumbent<E>>(new Incumbent<E>(solver.createEmptySol(), Integer.MAX_VALUE));
+		nextIteration = new AtomicInteger(0);
+		iterationsRun = new AtomicInteger(0);
+		iterationsWithoutImprovement = new AtomicInteger(0);
+		stop = new AtomicBoolean(false);
+
+		ExecutorService pool = Executors.newFixedThreadPool(nWorkers, threadFactory);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int w = 0; w < nWorkers; w++) {
+				AbstractGRASP<E> worker = solver.createWorker();
+				worker.setLogger(solver.logger);
+				worker.setElitePool(solver.elitePool);
+				worker.setReactiveAlpha(solver.reactiveAlpha);
+				worker.setMetrics(solver.metrics);
+				worker.setDeadline(deadline);
+				futures.add(pool.submit(() -> runWorker(worker, deadline)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			stop.set(true);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			stop.set(true);
+			throw new RuntimeException("A GRASP worker failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		solver.bestSol = bestSol.get().sol;
+		if (solver.metrics != null)
+			solver.metrics.finish();
+		if (AbstractGRASP.verbose) {
+			solver.logger.info("Parallel GRASP finished after " + iterationsRun.get() + " iterations on " + nWorkers + " workers.");
+			solver.logger.info("Best solution found: " + solver.bestSol);
+			if (solver.reactiveAlpha != null)
+				solver.logger.info("Reactive alpha distribution: " + solver.reactiveAlpha);
+			if (solver.metrics != null)
+				solver.logger.info("Metrics: " + solver.metrics.toJson());
+		}
+		return solver.bestSol;
+	}
+
+	/**
+	 * Runs iterations on a worker until a stopping criterion is met, by this
+	 * or by any other worker.
+	 *
+	 * @param worker
+	 *            The solver owned by this worker.
+	 * @param deadline
+	 *            The deadline of the parallel solve.
+	 */
+	private void runWorker(AbstractGRASP<E> worker, Deadline deadline) {
+		while (!stop.get()) {
+			int i = nextIteration.getAndIncrement();
+			if (i >= solver.iterations) {
+				stop.set(true);
+				break;
+			}
+
+			worker.runIteration(i);
+			iterationsRun.incrementAndGet();
+			Incumbent<E> incumbent = offer(worker.sol, i);
+			if (incumbent != null) {
+				iterationsWithoutImprovement.set(0);
+				if (AbstractGRASP.verbose)
+					solver.logger.info("(Iter. " + i + ") BestSol = " + worker.sol);
+				solver.incumbentImproved(incumbent.sol, i);
+			} else if (solver.maxIterationsWithoutImprovement != null
+					&& iterationsWithoutImprovement.incrementAndGet() >= solver.maxIterationsWithoutImprovement) {
+				if (!stop.getAndSet(true) && AbstractGRASP.verbose)
+					solver.logger.info("Maximum iterations without improvement reached: " + solver.maxIterationsWithoutImprovement);
+			}
+
+			if (deadline.isExpired() && !stop.getAndSet(true)) {
+				solver.logger.info(deadline.isCancelled() ? "Run cancelled" : "Timeout reached");
+			}
+		}
+	}
+
+	/**
+	 * Offers a solution as the new incumbent. A snapshot of the solution
+	 * replaces the incumbent if it is strictly better, retrying if another
+	 * worker changed the incumbent concurrently. Ties are broken in favor of
+	 * the earliest iteration, as in the sequential {@link AbstractGRASP#solve()},
+	 * so that the result does not depend on how iterations were scheduled.
+	 * Such a tie is not an improvement, though: as in the sequential
+	 * {@link AbstractGRASP#solve()}, only a strictly lower cost resets the
+	 * count of iterations without improvement and is passed to the listeners.
+	 *
+	 * @param sol
+	 *            The candidate solution.
+	 * @param iteration
+	 *            The iteration that produced the candidate solution.
+	 * @return the new incumbent if the solution became it with a strictly
+	 *         lower cost than the incumbent it replaced, null otherwise.
+	 */
+	private Incumbent<E> offer(Solution<E> sol, int iteration) {
+		Incumbent<E> current = bestSol.get();
+		if (!current.isWorseThan(sol.cost, iteration))
+			return null;
+
+		Incumbent<E> candidate = new Incumbent<E>(sol.copy(), iteration);
+		while (current.isWorseThan(sol.cost, iteration)) {
+			if (bestSol.compareAndSet(current, candidate))
+				return (current.sol.cost > sol.cost) ? candidate : null;
+			current = bestSol.get();
+		}
+		return null;
+	}
+
+	/**
+	 * An incumbent solution, along with the iteration that produced it.
+	 */
+	private static class Incumbent<E> {
+
+		final Solution<E> sol;
+
+		final int iteration;
+
+		Incumbent(Solution<E> sol, int iteration) {
+			this.sol = sol;
+			this.iteration = iteration;
+		}
+
+		boolean isWorseThan(double cost, int otherIteration) {
+			return sol.cost > cost || (sol.cost == cost && iteration > otherIteration);
+		}
+
+	}
+
+}
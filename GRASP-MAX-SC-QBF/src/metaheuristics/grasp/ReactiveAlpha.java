@@ -0,0 +1,280 @@
+package metaheuristics.grasp;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The distribution of alpha of a reactive GRASP (Prais and Ribeiro): instead
+ * of a fixed greediness-randomness parameter, each iteration draws alpha from
+ * a discrete set of values, with probabilities that are periodically updated
+ * to favor the values producing the best solutions on average.
+ *
+ * Since the costs can have any sign, the quality of a value is normalized
+ * between the worst average cost of the values, which scores 0, and the best
+ * cost found, which scores 1. The probabilities are proportional to the
+ * qualities raised to {@link #amplification}, on top of a floor that keeps
+ * every value being tried now and then. A value that was never tried gets the
+ * highest quality, so that every value is tried early on.
+ *
+ * It is thread-safe, so it can be shared by the workers of a
+ * {@link ParallelGRASP}.
+ */
+public class ReactiveAlpha {
+
+	/**
+	 * the default number of iterations between updates of the probabilities
+	 */
+	public static final int DEFAULT_PERIOD = 100;
+
+	/**
+	 * the default exponent applied to the qualities
+	 */
+	public static final double DEFAULT_AMPLIFICATION = 10.0;
+
+	/**
+	 * the default probability floor of each value, as a fraction of the
+	 * uniform probability
+	 */
+	public static final double DEFAULT_FLOOR = 0.1;
+
+	/**
+	 * the candidate values of alpha
+	 */
+	private final double[] values;
+
+	/**
+	 * the number of iterations between updates of the probabilities
+	 */
+	private final int period;
+
+	/**
+	 * the exponent applied to the qualities, the higher the greedier the
+	 * distribution
+	 */
+	private final double amplification;
+
+	/**
+	 * the minimum probability of each value
+	 */
+	private final double floor;
+
+	/**
+	 * the current probability of each value
+	 */
+	private final double[] probabilities;
+
+	/**
+	 * the sum of the costs obtained with each value, and the number of
+	 * iterations run with it
+	 */
+	private final double[] costSums;
+
+	private final long[] counts;
+
+	/**
+	 * the best cost recorded so far
+	 */
+	private double bestCost = Double.POSITIVE_INFINITY;
+
+	/**
+	 * the number of iterations recorded since the last update
+	 */
+	private int sinceUpdate;
+
+	/**
+	 * Constructor for the ReactiveAlpha class, with the default period,
+	 * amplification and floor.
+	 *
+	 * @param values
+	 *            The candidate values of alpha, within the range [0,1].
+	 */
+	public ReactiveAlpha(double[] values) {
+		this(values, DEFAULT_PERIOD, DEFAULT_AMPLIFICATION, DEFAULT_FLOOR);
+	}
+
+	/**
+	 * Constructor for the ReactiveAlpha class.
+	 *
+	 * @param values
+	 *            The candidate values of alpha, within the range [0,1].
+	 * @param period
+	 *            The number of iterations between updates of the
+	 *            probabilities.
+	 * @param amplification
+	 *            The exponent applied to the qualities of the values.
+	 * @param floor
+	 *            The minimum probability of each value, as a fraction of the
+	 *            uniform probability, within the range [0,1].
+	 */
+	public ReactiveAlpha(double[] values, int period, double amplification, double floor) {
+		if (values.length == 0)
+			throw new IllegalArgumentException("At least one value of alpha is needed");
+		if (period < 1)
+			throw new IllegalArgumentException("The period must be positive: " + period);
+		if (floor < 0.0 || floor > 1.0)
+			throw new IllegalArgumentException("The floor must be within [0,1]: " + floor);
+		this.values = values.clone();
+		this.period = period;
+		this.amplification = amplification;
+		this.floor = floor / values.length;
+		this.probabilities = new double[values.length];
+		this.costSums = new double[values.length];
+		this.counts = new long[values.length];
+		Arrays.fill(probabilities, 1.0 / values.length);
+	}
+
+	/**
+	 * Draws a value of alpha from the current distribution.
+	 *
+	 * @param rng
+	 *            The random number generator of the iteration.
+	 * @return the index of the value drawn.
+	 */
+	public synchronized int choose(SplittableRandom rng) {
+		double r = rng.nextDouble();
+		for (int k = 0; k < values.length - 1; k++) {
+			r -= probabilities[k];
+			if (r < 0.0)
+				return k;
+		}
+		return values.length - 1;
+	}
+
+	/**
+	 * @param index
+	 *            The index of a value.
+	 * @return the value of alpha.
+	 */
+	public double getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Records the cost of the solution of an iteration, updating the
+	 * probabilities once every {@link #period} iterations.
+	 *
+	 * @param index
+	 *            The index of the value the iteration ran with.
+	 * @param cost
+	 *            The cost of the solution of the iteration.
+	 * @return true if the probabilities were updated.
+	 */
+	public synchronized boolean record(int index, double cost) {
+		costSums[index] += cost;
+		counts[index]++;
+		bestCost = Math.min(bestCost, cost);
+		if (++sinceUpdate < period)
+			return false;
+		sinceUpdate = 0;
+		updateProbabilities();
+		return true;
+	}
+
+	private void updateProbabilities() {
+		double worstAverage = Double.NEGATIVE_INFINITY;
+		for (int k = 0; k < values.length; k++) {
+			if (counts[k] > 0)
+				worstAverage = Math.max(worstAverage, costSums[k] / counts[k]);
+		}
+
+		double[] weights = new double[values.length];
+		double sum = 0.0;
+		for (int k = 0; k < values.length; k++) {
+			double quality = 1.0;
+			if (counts[k] > 0 && worstAverage > bestCost)
+				quality = (worstAverage - costSums[k] / counts[k]) / (worstAverage - bestCost);
+			weights[k] = Math.pow(quality, amplification);
+			sum += weights[k];
+		}
+
+		double share = 1.0 - floor * values.length;
+		for (int k = 0; k < values.length; k++) {
+			probabilities[k] = floor + share * ((sum > 0.0) ? weights[k] / sum : 1.0 / values.length);
+		}
+	}
+
+	/**
+	 * @return the candidate values of alpha.
+	 */
+	public double[] getValues() {
+		return values.clone();
+	}
+
+	/**
+	 * @return a snapshot of the current probability of each value.
+	 */
+	public synchronized double[] getProbabilities() {
+		return probabilities.clone();
+	}
+
+	/**
+	 * @return a snapshot of the average cost obtained with each value, NaN
+	 *         for the values never tried.
+	 */
+	public synchronized double[] getAverageCosts() {
+		double[] averages = new double[values.length];
+		for (int k = 0; k < values.length; k++) {
+			averages[k] = (counts[k] > 0) ? costSums[k] / counts[k] : Double.NaN;
+		}
+		return averages;
+	}
+
+	/**
+	 * @return a snapshot of the number of iterations run with each value.
+	 */
+	public synchronized long[] getCounts() {
+		return counts.clone();
+	}
+
+	/**
+	 * Writes what the distribution learned so far, to a checkpoint of the
+	 * run (see {@link GRASPCheckpoint}).
+	 */
+	synchronized void writeState(DataOutput out) throws IOException {
+		out.writeInt(values.length);
+		for (int k = 0; k < values.length; k++) {
+			out.writeDouble(probabilities[k]);
+			out.writeDouble(costSums[k]);
+			out.writeLong(counts[k]);
+		}
+		out.writeDouble(bestCost);
+		out.writeInt(sinceUpdate);
+	}
+
+	/**
+	 * Restores what the distribution learned, as written by
+	 * {@link #writeState(DataOutput)} from a distribution over the same
+	 * values.
+	 */
+	synchronized void readState(DataInput in) throws IOException {
+		int n = in.readInt();
+		if (n != values.length)
+			throw new IOException("The checkpoint has " + n + " values of alpha, not " + values.length);
+		for (int k = 0; k < n; k++) {
+			probabilities[k] = in.readDouble();
+			costSums[k] = in.readDouble();
+			counts[k] = in.readLong();
+		}
+		bestCost = in.readDouble();
+		sinceUpdate = in.readInt();
+	}
+
+	/**
+	 * Describes the learned distribution, as each value of alpha with its
+	 * probability and the number of iterations run with it.
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (int k = 0; k < values.length; k++) {
+			if (k > 0)
+				sb.append(", ");
+			sb.append(String.format("%.2f: p=%.3f n=%d", values[k], probabilities[k], counts[k]));
+		}
+		return sb.append("}").toString();
+	}
+
+}
@@ -5,7 +5,7 @@ import solutions.Solution;
 /**
  * The Evaluator interface gives to a problem the required functionality to
  * obtain a mapping of a solution (n-dimensional array of elements of generic
- * type E (domain)) to a Double (image). It is a useful representation of an
+ * type E (domain)) to a double (image). It is a useful representation of an
  * objective function for an optimization problem.
  * 
  * @author ccavellucci, fusberti
@@ -19,7 +19,7 @@ public interface Evaluator<E> {
 	 * 
 	 * @return the size of the problem domain.
 	 */
-	public abstract Integer getDomainSize();
+	public abstract int getDomainSize();
 
 	/**
 	 * The evaluating function is responsible for returning the mapping value of
@@ -29,7 +29,7 @@ public interface Evaluator<E> {
 	 *            the solution under evaluation.
 	 * @return the evaluation of a solution.
 	 */
-	public abstract Double evaluate(Solution<E> sol);
+	public abstract double evaluate(Solution<E> sol);
 
 	/**
 	 * Evaluates the cost variation of inserting an element into a solution
@@ -43,7 +43,7 @@ public interface Evaluator<E> {
 	 * @return the cost variation resulting from the element insertion into the
 	 *         solution.
 	 */
-	public abstract Double evaluateInsertionCost(E elem, Solution<E> sol);
+	public abstract double evaluateInsertionCost(E elem, Solution<E> sol);
 
 	/**
 	 * Evaluates the cost variation of removing an element into a solution
@@ -57,7 +57,7 @@ public interface Evaluator<E> {
 	 * @return the cost variation resulting from the element removal pf the the
 	 *         solution.
 	 */
-	public abstract Double evaluateRemovalCost(E elem, Solution<E> sol);
+	public abstract double evaluateRemovalCost(E elem, Solution<E> sol);
 
 	/**
 	 * Evaluates the cost variation of exchanging candidates, one being
@@ -73,6 +73,6 @@ public interface Evaluator<E> {
 	 *            evaluated.
 	 * @return the cost variation resulting from the elements exchange.
 	 */
-	public abstract Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
+	public abstract double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
 
 }
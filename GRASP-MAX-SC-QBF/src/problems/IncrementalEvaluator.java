@@ -0,0 +1,101 @@
+package problems;
+
+import solutions.Solution;
+
+/**
+ * The IncrementalEvaluator interface extends an {@link Evaluator} with a
+ * stateful mode of operation. The evaluator is first bound to a solution,
+ * after which it keeps auxiliary data about that solution up to date. Cost
+ * variations of neighborhood moves can then be obtained without re-evaluating
+ * the solution, and moves are applied through the evaluator itself so that
+ * the auxiliary data, the solution and its cost never get out of sync.
+ *
+ * While a solution is bound, it must only be modified through the apply
+ * methods. Calling any of the stateless {@link Evaluator} methods releases
+ * the binding, and {@link #bind(Solution)} must be called again before using
+ * the bound methods.
+ *
+ * The delta methods only read the auxiliary data, hence they can be called
+ * concurrently from several threads, as long as no bind or apply method is
+ * running at the same time.
+ *
+ * @param <E>
+ */
+public interface IncrementalEvaluator<E> extends Evaluator<E> {
+
+	/**
+	 * Binds the evaluator to a solution, computing its cost and the auxiliary
+	 * data used by the bound methods.
+	 *
+	 * @param sol
+	 *            the solution to be bound.
+	 */
+	public abstract void bind(Solution<E> sol);
+
+	/**
+	 * Gives the solution currently bound to the evaluator.
+	 *
+	 * @return the bound solution, or null if there is none.
+	 */
+	public abstract Solution<E> getBoundSolution();
+
+	/**
+	 * Evaluates the cost variation of inserting an element into the bound
+	 * solution.
+	 *
+	 * @param elem
+	 *            the element under consideration for insertion.
+	 * @return the cost variation resulting from the element insertion.
+	 */
+	public abstract double evaluateInsertionDelta(E elem);
+
+	/**
+	 * Evaluates the cost variation of removing an element from the bound
+	 * solution.
+	 *
+	 * @param elem
+	 *            the element under consideration for removal.
+	 * @return the cost variation resulting from the element removal.
+	 */
+	public abstract double evaluateRemovalDelta(E elem);
+
+	/**
+	 * Evaluates the cost variation of exchanging an element of the bound
+	 * solution (elemOut) for one that is not in it (elemIn).
+	 *
+	 * @param elemIn
+	 *            the element under consideration for insertion.
+	 * @param elemOut
+	 *            the element under consideration for removal.
+	 * @return the cost variation resulting from the elements exchange.
+	 */
+	public abstract double evaluateExchangeDelta(E elemIn, E elemOut);
+
+	/**
+	 * Inserts an element into the bound solution, updating its cost.
+	 *
+	 * @param elem
+	 *            the element to be inserted.
+	 */
+	public abstract void applyInsertion(E elem);
+
+	/**
+	 * Removes an element from the bound solution, updating its cost.
+	 *
+	 * @param elem
+	 *            the element to be removed.
+	 */
+	public abstract void applyRemoval(E elem);
+
+	/**
+	 * Exchanges an element of the bound solution (elemOut) for one that is
+	 * not in it (elemIn), updating its cost.
+	 *
+	 * @param elemIn
+	 *            the element to be inserted.
+	 * @param elemOut
+	 *            the element to be removed.
+	 */
+	public abstract void applyExchange(E elemIn, E elemOut);
+
+}
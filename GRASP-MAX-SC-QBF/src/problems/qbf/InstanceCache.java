@@ -0,0 +1,210 @@
+package problems.qbf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Process-wide cache of the instances read from files, so that the solvers of
+ * a campaign share one copy of each instance instead of reading it again for
+ * every configuration. An instance is identified by the kind of instance it
+ * was read as and the real path of its file, and is read again if the file
+ * was modified since.
+ *
+ * The cache is bounded by the heap its instances take, as estimated by
+ * {@link QBFInstance#getHeapBytes()}: when the bound is exceeded, the least
+ * recently used instances are dropped. An instance that was dropped remains
+ * valid for the evaluators that hold it, it is only read again by the next
+ * request. The bound defaults to a quarter of the maximum heap, and can be
+ * set with the {@code qbf.instanceCache.maxBytes} system property.
+ *
+ * The cache is thread-safe. Concurrent requests for the same instance wait
+ * for a single read, while instances that are not related are read in
+ * parallel.
+ */
+public class InstanceCache {
+
+	/**
+	 * Reads an instance from its file.
+	 */
+	@FunctionalInterface
+	public interface Loader<T extends QBFInstance> {
+		T load(String filename) throws IOException;
+	}
+
+	private static final InstanceCache DEFAULT = new InstanceCache(
+			Long.getLong("qbf.instanceCache.maxBytes", Runtime.getRuntime().maxMemory() / 4));
+
+	/**
+	 * the bound on the heap taken by the cached instances
+	 */
+	private final long maxBytes;
+
+	/**
+	 * the heap taken by the instances read so far
+	 */
+	private long usedBytes;
+
+	/**
+	 * the cached instances, least recently used first
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Constructor for the InstanceCache class. Most callers share the
+	 * {@link #getDefault() default} cache instead.
+	 *
+	 * @param maxBytes
+	 *            the bound on the heap taken by the cached instances.
+	 */
+	public InstanceCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return the process-wide cache.
+	 */
+	public static InstanceCache getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Gives the instance of a file, reading it if it is not cached yet or if
+	 * the file was modified since it was read.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @param type
+	 *            the kind of instance the file is read as.
+	 * @param loader
+	 *            reads the instance on a cache miss.
+	 * @return the instance, possibly shared with other callers.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public <T extends QBFInstance> T get(String filename, Class<T> type, Loader<T> loader) throws IOException {
+		Path path = Paths.get(filename).toRealPath();
+		long modified = Files.getLastModifiedTime(path).toMillis();
+		String key = type.getName() + ":" + path;
+
+		Entry entry;
+		boolean reading = false;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry == null || entry.modified != modified) {
+				if (entry != null)
+					discard(key, entry);
+				entry = new Entry(modified);
+				entries.put(key, entry);
+				reading = true;
+			}
+		}
+
+		if (reading) {
+			// The file is read outside of the lock, the other requests for it wait on the entry
+			try {
+				QBFInstance instance = loader.load(path.toString());
+				synchronized (this) {
+					entry.bytes = instance.getHeapBytes();
+					if (entries.get(key) == entry) {
+						entry.counted = true;
+						usedBytes += entry.bytes;
+						evict(entry);
+					}
+				}
+				entry.instance.complete(instance);
+			} catch (Throwable e) {
+				synchronized (this) {
+					entries.remove(key, entry);
+				}
+				entry.instance.completeExceptionally(e);
+				throw e;
+			}
+		}
+
+		try {
+			return type.cast(entry.instance.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException)
+				throw new IOException(e.getCause().getMessage(), e.getCause());
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the heap taken by the cached instances, as estimated by
+	 *         {@link QBFInstance#getHeapBytes()}.
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * @return the number of cached instances, including those being read.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Drops every cached instance.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		usedBytes = 0;
+	}
+
+	/**
+	 * Drops the least recently used instances until the cache fits its bound
+	 * again. The instance just read is kept even if it does not fit alone, as
+	 * are the instances still being read.
+	 */
+	private void evict(Entry kept) {
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (usedBytes > maxBytes && it.hasNext()) {
+			Entry entry = it.next().getValue();
+			if (entry != kept && entry.counted) {
+				it.remove();
+				usedBytes -= entry.bytes;
+			}
+		}
+	}
+
+	private void discard(String key, Entry entry) {
+		entries.remove(key);
+		if (entry.counted)
+			usedBytes -= entry.bytes;
+	}
+
+	private static class Entry {
+
+		/**
+		 * the modification time of the file when it was read
+		 */
+		final long modified;
+
+		final CompletableFuture<QBFInstance> instance = new CompletableFuture<>();
+
+		/**
+		 * the heap taken by the instance, once read
+		 */
+		long bytes;
+
+		/**
+		 * whether the bytes are counted in the heap taken by the cache
+		 */
+		boolean counted;
+
+		Entry(long modified) {
+			this.modified = modified;
+		}
+
+	}
+
+}
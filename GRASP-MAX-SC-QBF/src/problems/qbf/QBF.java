@@ -1,12 +1,11 @@
 package problems.qbf;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StreamTokenizer;
 import java.util.Arrays;
-import problems.Evaluator;
+import problems.IncrementalEvaluator;
+import problems.qbf.matrices.CouplingMatrix;
+import problems.qbf.matrices.CouplingMatrixBuilder;
+import problems.qbf.matrices.CouplingPartners;
 import solutions.Solution;
 
 /**
@@ -23,27 +22,58 @@ import solutions.Solution;
  * @author ccavellucci, fusberti
  *
  */
-public class QBF implements Evaluator<Integer> {
+public class QBF implements IncrementalEvaluator<Integer> {
+
+	/**
+	 * The instance, whose data is shared by every evaluator of the same file.
+	 */
+	protected final QBFInstance instance;
 
 	/**
 	 * Dimension of the domain.
 	 */
-	public final Integer size;
+	public final int size;
 
 	/**
 	 * The array of numbers representing the domain.
 	 */
-	public final Double[] variables;
+	public final double[] variables;
+
+	/**
+	 * The matrix A of coefficients for the QBF f(x) = x'.A.x, in symmetrized
+	 * form: the coupling of variables i and j is A[i][j] + A[j][i], so that
+	 * row i alone describes every quadratic term involving variable i. It is
+	 * stored densely or sparsely depending on its density, see
+	 * {@link CouplingMatrixBuilder}. Use {@link #getA(int, int)} and
+	 * {@link #getCoupling(int, int)} to read it.
+	 */
+	protected final CouplingMatrix A;
+
+	/**
+	 * The contribution of each variable to the QBF given the current values of
+	 * the other variables, i.e., gains[i] = A[i][i] + \sum{j != i}{x_j*(A[i][j]
+	 * + A[j][i])}. It is only kept up to date while a solution is bound.
+	 */
+	protected final double[] gains;
+
+	/**
+	 * The solution bound to this evaluator, if any.
+	 */
+	protected Solution<Integer> boundSolution;
 
 	/**
-	 * The matrix A of coefficients for the QBF f(x) = x'.A.x
+	 * The canonical boxed instance of each element of the domain, so that
+	 * candidate lists can be filled without boxing a new Integer per element.
+	 * It is shared by the copies of this evaluator.
 	 */
-	public Double[][] A;
+	protected final Integer[] elements;
+
 
 	/**
 	 * The constructor for QuadracticBinaryFunction class. The filename of the
-	 * input for setting matrix of coefficients A of the QBF. The dimension of
-	 * the array of variables x is returned from the {@link #readInput} method.
+	 * input for setting matrix of coefficients A of the QBF. The instance is
+	 * read through the {@link InstanceCache}, so that the evaluators of the
+	 * same file share its data.
 	 * 
 	 * @param filename
 	 *            Name of the file containing the input for setting the QBF.
@@ -51,8 +81,64 @@ public class QBF implements Evaluator<Integer> {
 	 *             Necessary for I/O operations.
 	 */
 	public QBF(String filename) throws IOException {
-		size = readInput(filename);
+		this(QBFInstance.load(filename));
+	}
+
+	/**
+	 * Constructor for the QBF class, from an instance already read. The
+	 * (read-only) instance is shared, while the variables belong to this
+	 * evaluator, so that evaluators of the same instance can be used
+	 * concurrently.
+	 * 
+	 * @param instance
+	 *            the instance of the QBF.
+	 */
+	public QBF(QBFInstance instance) {
+		this.instance = instance;
+		size = instance.getSize();
+		A = instance.getMatrix();
+		elements = instance.getElements();
 		variables = allocateVariables();
+		gains = new double[size];
+	}
+
+	/**
+	 * Copy constructor for the QBF class. The copy shares the instance with
+	 * the original, but has its own variables. See {@link #QBF(QBFInstance)}.
+	 * 
+	 * @param other
+	 *            the QBF being copied.
+	 */
+	protected QBF(QBF other) {
+		this(other.instance);
+	}
+
+	/**
+	 * Creates a copy of this evaluator that shares its matrix of coefficients,
+	 * but not its variables. See {@link #QBF(QBF)}.
+	 * 
+	 * @return a copy of this evaluator.
+	 */
+	public QBF copy() {
+		return new QBF(this);
+	}
+
+	/**
+	 * @return the (read-only) instance of this evaluator.
+	 */
+	public QBFInstance getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Gives the canonical boxed instance of an element of the domain.
+	 * 
+	 * @param i
+	 *            index of the element.
+	 * @return the element i, always the same Integer instance.
+	 */
+	public Integer getElement(int i) {
+		return elements[i];
 	}
 
 	/**
@@ -64,11 +150,10 @@ public class QBF implements Evaluator<Integer> {
 	 */
 	public void setVariables(Solution<Integer> sol) {
 
+		boundSolution = null;
 		resetVariables();
-		if (!sol.isEmpty()) {
-			for (Integer elem : sol) {
-				variables[elem] = 0.0;
-			}
+		for (int k = 0, n = sol.size(); k < n; k++) {
+			variables[sol.get(k)] = 0.0;
 		}
 
 	}
@@ -79,7 +164,7 @@ public class QBF implements Evaluator<Integer> {
 	 * @see problems.Evaluator#getDomainSize()
 	 */
 	@Override
-	public Integer getDomainSize() {
+	public int getDomainSize() {
 		return size;
 	}
 
@@ -93,7 +178,7 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The evaluation of the QBF.
 	 */
 	@Override
-	public Double evaluate(Solution<Integer> sol) {
+	public double evaluate(Solution<Integer> sol) {
 
 		setVariables(sol);
 		return sol.cost = evaluateQBF();
@@ -106,18 +191,17 @@ public class QBF implements Evaluator<Integer> {
 	 * 
 	 * @return The value of the QBF.
 	 */
-	public Double evaluateQBF() {
+	public double evaluateQBF() {
 
-		Double aux = (double) 0, sum = (double) 0;
-		Double vecAux[] = new Double[size];
+		double sum = 0.0;
 
 		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				aux += variables[j] * A[i][j];
-			}
-			vecAux[i] = aux;
+			if (variables[i] == 0.0)
+				continue;
+			// Only the upper half of the symmetrized row is needed, since
+			// each coupling already accounts for both A[i][j] and A[j][i].
+			double aux = A.getDiagonal(i) + A.dotUpperRow(i, variables);
 			sum += aux * variables[i];
-			aux = (double) 0;
 		}
 
 		return sum;
@@ -131,7 +215,7 @@ public class QBF implements Evaluator<Integer> {
 	 * solutions.Solution)
 	 */
 	@Override
-	public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
+	public double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
 
 		setVariables(sol);
         // By adding an element to the solution, its value will be set to 0.
@@ -149,7 +233,7 @@ public class QBF implements Evaluator<Integer> {
 	 * @return Ihe variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	public Double evaluateInsertionQBF(int i) {
+	public double evaluateInsertionQBF(int i) {
 
 		if (variables[i] == 1)
 			return 0.0;
@@ -164,7 +248,7 @@ public class QBF implements Evaluator<Integer> {
 	 * solutions.Solution)
 	 */
 	@Override
-	public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
+	public double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
 
 		setVariables(sol);
         // By removing an element from the solution, its value will be set to 1.
@@ -182,7 +266,7 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         removal.
 	 */
-	public Double evaluateRemovalQBF(int i) {
+	public double evaluateRemovalQBF(int i) {
 
 		if (variables[i] == 0)
 			return 0.0;
@@ -198,7 +282,7 @@ public class QBF implements Evaluator<Integer> {
 	 * java.lang.Object, solutions.Solution)
 	 */
 	@Override
-	public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
+	public double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
 
 		setVariables(sol);
         // Purposefully reversing the roles of in and out.
@@ -219,9 +303,9 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         exchange.
 	 */
-	public Double evaluateExchangeQBF(int in, int out) {
+	public double evaluateExchangeQBF(int in, int out) {
 
-		Double sum = 0.0;
+		double sum = 0.0;
 
 		if (in == out)
 			return 0.0;
@@ -232,7 +316,7 @@ public class QBF implements Evaluator<Integer> {
 
 		sum += evaluateContributionQBF(in);
 		sum -= evaluateContributionQBF(out);
-		sum -= (A[in][out] + A[out][in]);
+		sum -= A.getCoupling(in, out);
 
 		return sum;
 	}
@@ -251,51 +335,282 @@ public class QBF implements Evaluator<Integer> {
 	 * @return the variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	private Double evaluateContributionQBF(int i) {
+	private double evaluateContributionQBF(int i) {
+
+		return A.dotRow(i, variables) + A.getDiagonal(i);
+	}
 
-		Double sum = 0.0;
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#bind(solutions.Solution)
+	 */
+	@Override
+	public void bind(Solution<Integer> sol) {
 
-		for (int j = 0; j < size; j++) {
-			if (i != j)
-				sum += variables[j] * (A[i][j] + A[j][i]);
+		setVariables(sol);
+		for (int i = 0; i < size; i++) {
+			gains[i] = evaluateContributionQBF(i);
 		}
-		sum += A[i][i];
+		boundSolution = sol;
+		sol.cost = evaluateQBF();
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#getBoundSolution()
+	 */
+	@Override
+	public Solution<Integer> getBoundSolution() {
+		return boundSolution;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#evaluateInsertionDelta(java.lang.Object)
+	 */
+	@Override
+	public double evaluateInsertionDelta(Integer elem) {
+		// Same role inversion as in evaluateInsertionCost.
+		return evaluateBoundRemovalQBF(elem);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#evaluateRemovalDelta(java.lang.Object)
+	 */
+	@Override
+	public double evaluateRemovalDelta(Integer elem) {
+		return evaluateBoundInsertionQBF(elem);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#evaluateExchangeDelta(java.lang.Object,
+	 * java.lang.Object)
+	 */
+	@Override
+	public double evaluateExchangeDelta(Integer elemIn, Integer elemOut) {
+		return evaluateBoundExchangeQBF(elemOut, elemIn);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#applyInsertion(java.lang.Object)
+	 */
+	@Override
+	public void applyInsertion(Integer elem) {
+
+		double deltaCost = evaluateInsertionDelta(elem);
+		boundSolution.add(elem);
+		boundSolution.cost += deltaCost;
+		setVariable(elem, 0.0);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#applyRemoval(java.lang.Object)
+	 */
+	@Override
+	public void applyRemoval(Integer elem) {
+
+		double deltaCost = evaluateRemovalDelta(elem);
+		boundSolution.remove(elem);
+		boundSolution.cost += deltaCost;
+		setVariable(elem, 1.0);
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.IncrementalEvaluator#applyExchange(java.lang.Object,
+	 * java.lang.Object)
+	 */
+	@Override
+	public void applyExchange(Integer elemIn, Integer elemOut) {
+
+		double deltaCost = evaluateExchangeDelta(elemIn, elemOut);
+		boundSolution.remove(elemOut);
+		boundSolution.add(elemIn);
+		boundSolution.cost += deltaCost;
+		setVariable(elemOut, 1.0);
+		setVariable(elemIn, 0.0);
 
-		return sum;
 	}
 
 	/**
-	 * Responsible for setting the QBF function parameters by reading the
-	 * necessary input from an external file. this method reads the domain's
-	 * dimension and matrix {@link #A}.
+	 * Same as {@link #evaluateInsertionQBF(int)}, but reading the contribution
+	 * of the element from {@link #gains} in O(1). Only valid while a solution
+	 * is bound.
 	 * 
-	 * @param filename
-	 *            Name of the file containing the input for setting the black
-	 *            box function.
-	 * @return The dimension of the domain.
-	 * @throws IOException
-	 *             Necessary for I/O operations.
+	 * @param i
+	 *            Index of the element being inserted into the solution.
+	 * @return The variation of the objective function resulting from the
+	 *         insertion.
 	 */
-	protected Integer readInput(String filename) throws IOException {
+	public double evaluateBoundInsertionQBF(int i) {
 
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
+		if (variables[i] == 1)
+			return 0.0;
 
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
-		A = new Double[_size][_size];
+		return gains[i];
+	}
 
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				if (j>i)
-					A[j][i] = 0.0;
-			}
-		}
+	/**
+	 * Same as {@link #evaluateRemovalQBF(int)}, but reading the contribution
+	 * of the element from {@link #gains} in O(1). Only valid while a solution
+	 * is bound.
+	 * 
+	 * @param i
+	 *            Index of the element being removed from the solution.
+	 * @return The variation of the objective function resulting from the
+	 *         removal.
+	 */
+	public double evaluateBoundRemovalQBF(int i) {
+
+		if (variables[i] == 0)
+			return 0.0;
+
+		return -gains[i];
+	}
+
+	/**
+	 * Same as {@link #evaluateExchangeQBF(int, int)}, but reading the
+	 * contributions of the elements from {@link #gains} in O(1). Only valid
+	 * while a solution is bound.
+	 * 
+	 * @param in
+	 *            The index of the element that is considered entering the
+	 *            solution.
+	 * @param out
+	 *            The index of the element that is considered exiting the
+	 *            solution.
+	 * @return The variation of the objective function resulting from the
+	 *         exchange.
+	 */
+	public double evaluateBoundExchangeQBF(int in, int out) {
 
-		return _size;
+		// The degenerate cases are written out instead of delegated, so that
+		// subclasses overriding the bound methods only apply their
+		// transformation once.
+		if (in == out)
+			return 0.0;
+		if (variables[in] == 1)
+			return (variables[out] == 0) ? 0.0 : -gains[out];
+		if (variables[out] == 0)
+			return gains[in];
+
+		return gains[in] - gains[out] - A.getCoupling(in, out);
+	}
+
+	/**
+	 * Changes the value of a single variable of the bound solution, updating
+	 * {@link #gains} with one row scan of matrix A.
+	 * 
+	 * @param i
+	 *            index of the variable.
+	 * @param value
+	 *            the new value of the variable.
+	 */
+	protected void setVariable(int i, double value) {
+
+		double change = value - variables[i];
+		if (change == 0.0)
+			return;
+
+		variables[i] = value;
+		// The rows exclude the diagonal, so gains[i] stays the same.
+		A.addRow(i, change, gains);
+
+	}
+
+	/**
+	 * Gives the coefficient A[i][j] of the QBF, as read from the input. Since
+	 * the input is an upper triangular matrix, every coefficient below the
+	 * diagonal is zero.
+	 * 
+	 * @param i
+	 *            row of the coefficient.
+	 * @param j
+	 *            column of the coefficient.
+	 * @return the coefficient A[i][j].
+	 */
+	public double getA(int i, int j) {
+
+		if (i == j)
+			return A.getDiagonal(i);
+		if (i > j)
+			return 0.0;
+		return A.getCoupling(i, j);
+
+	}
 
+	/**
+	 * Gives the coupling between two distinct variables, i.e., the
+	 * coefficient A[i][j] + A[j][i] of the term x_i*x_j. For i == j it gives
+	 * the linear coefficient A[i][i].
+	 * 
+	 * @param i
+	 *            index of the first variable.
+	 * @param j
+	 *            index of the second variable.
+	 * @return the coupling between variables i and j.
+	 */
+	public double getCoupling(int i, int j) {
+
+		if (i == j)
+			return A.getDiagonal(i);
+		return A.getCoupling(i, j);
+
+	}
+
+	/**
+	 * Gives the largest absolute coupling of a variable with any other one.
+	 * The variation of an exchange differs from the sum of the variations of
+	 * the corresponding insertion and removal by at most this value.
+	 * 
+	 * @param i
+	 *            index of the variable.
+	 * @return the largest |A[i][j] + A[j][i]| over j != i.
+	 */
+	public double getMaxCoupling(int i) {
+		return A.getMaxAbsCoupling(i);
+	}
+
+	/**
+	 * Lists the variables coupled with variable i, i.e., those j != i whose
+	 * coupling with i is not zero.
+	 * 
+	 * @param i
+	 *            index of the variable.
+	 * @param columns
+	 *            array receiving the coupled variables, of dimension at least
+	 *            {@link #size}.
+	 * @return the number of coupled variables written to the array.
+	 */
+	public int getCoupledVariables(int i, int[] columns) {
+		return A.getCoupledVariables(i, columns);
+	}
+
+	/**
+	 * Gives the k strongest coupling partners of each variable, shared by the
+	 * evaluators of the instance. See {@link QBFInstance#getCouplingPartners(int)}.
+	 * 
+	 * @param k
+	 *            the maximum number of partners of each variable.
+	 * @return the partner lists.
+	 */
+	public CouplingPartners getCouplingPartners(int k) {
+		return instance.getCouplingPartners(k);
 	}
 
 	/**
@@ -304,8 +619,8 @@ public class QBF implements Evaluator<Integer> {
 	 * 
 	 * @return a pointer to the array of domain variables.
 	 */
-	protected Double[] allocateVariables() {
-		Double[] _variables = new Double[size];
+	protected double[] allocateVariables() {
+		double[] _variables = new double[size];
 		return _variables;
 	}
 
@@ -323,7 +638,7 @@ public class QBF implements Evaluator<Integer> {
 
 		for (int i = 0; i < size; i++) {
 			for (int j = i; j < size; j++) {
-				System.out.print(A[i][j] + " ");
+				System.out.print(getA(i, j) + " ");
 			}
 			System.out.println();
 		}
@@ -340,7 +655,7 @@ public class QBF implements Evaluator<Integer> {
 
 		QBF qbf = new QBF("instances/qbf/qbf040");
 		qbf.printMatrix();
-		Double maxVal = Double.NEGATIVE_INFINITY;
+		double maxVal = Double.NEGATIVE_INFINITY;
 		
 		// evaluates randomly generated values for the domain, saving the best
 		// one.
@@ -352,7 +667,7 @@ public class QBF implements Evaluator<Integer> {
 					qbf.variables[j] = 1.0;
 			}
 			//System.out.println("x = " + Arrays.toString(qbf.variables));
-			Double eval = qbf.evaluateQBF();
+			double eval = qbf.evaluateQBF();
 			//System.out.println("f(x) = " + eval);
 			if (maxVal < eval)
 				maxVal = eval;
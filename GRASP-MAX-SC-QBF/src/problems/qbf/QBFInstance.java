@@ -0,0 +1,190 @@
+package problems.qbf;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamTokenizer;
+import java.util.HashMap;
+import java.util.Map;
+
+import problems.qbf.io.BinaryInstance;
+import problems.qbf.matrices.CouplingMatrix;
+import problems.qbf.matrices.CouplingMatrixBuilder;
+import problems.qbf.matrices.CouplingPartners;
+
+/**
+ * The data of a QBF instance, as read from its file: the dimension of the
+ * domain and the matrix A of coefficients. An instance is never modified once
+ * read, so it can be shared by any number of {@link QBF} evaluators, which
+ * keep the mutable state of an evaluation (the variables and their gains) on
+ * their own. Instances are normally obtained through {@link #load(String)},
+ * so that a file is read once per process, see {@link InstanceCache}.
+ *
+ * @author ccavellucci, fusberti
+ */
+public class QBFInstance {
+
+	/**
+	 * Dimension of the domain.
+	 */
+	protected int size;
+
+	/**
+	 * The matrix A of coefficients, in symmetrized form, see {@link QBF#A}.
+	 */
+	protected CouplingMatrix A;
+
+	/**
+	 * The canonical boxed instance of each element of the domain.
+	 */
+	protected Integer[] elements;
+
+	/**
+	 * The partner lists built so far, by number of partners, see
+	 * {@link #getCouplingPartners(int)}.
+	 */
+	private final Map<Integer, CouplingPartners> couplingPartners = new HashMap<>();
+
+	/**
+	 * Reads an instance from a file. Besides the text format, the file can be
+	 * a {@link BinaryInstance}, whose coefficients are then read from a memory
+	 * mapping instead of being loaded onto the heap.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public QBFInstance(String filename) throws IOException {
+		size = readInput(filename);
+		elements = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			elements[i] = Integer.valueOf(i);
+		}
+	}
+
+	/**
+	 * Gives the instance of a file, reading it only if it is not in the
+	 * process-wide {@link InstanceCache} yet.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return the instance, possibly shared with other callers.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static QBFInstance load(String filename) throws IOException {
+		return InstanceCache.getDefault().get(filename, QBFInstance.class, QBFInstance::new);
+	}
+
+	/**
+	 * Responsible for reading the instance from an external file. this method
+	 * reads the domain's dimension and matrix {@link #A}.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return The dimension of the domain.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	protected Integer readInput(String filename) throws IOException {
+
+		if (BinaryInstance.isBinary(filename)) {
+			BinaryInstance instance = BinaryInstance.open(filename);
+			A = instance.getMatrix();
+			return instance.getSize();
+		}
+
+		try (Reader fileInst = new BufferedReader(new FileReader(filename))) {
+			StreamTokenizer stok = new StreamTokenizer(fileInst);
+
+			stok.nextToken();
+			Integer _size = (int) stok.nval;
+			readMatrix(stok, _size);
+
+			return _size;
+		}
+
+	}
+
+	/**
+	 * Reads the upper triangular matrix A of coefficients, row by row, into
+	 * {@link #A}. Only its nonzeros are kept while reading, and the storage of
+	 * the matrix is chosen once its density is known.
+	 *
+	 * @param stok
+	 *            tokenizer positioned right before the first coefficient.
+	 * @param _size
+	 *            The dimension of the domain.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	protected void readMatrix(StreamTokenizer stok, int _size) throws IOException {
+
+		CouplingMatrixBuilder builder = new CouplingMatrixBuilder(_size);
+
+		for (int i = 0; i < _size; i++) {
+			stok.nextToken();
+			builder.setDiagonal(i, stok.nval);
+			for (int j = i + 1; j < _size; j++) {
+				stok.nextToken();
+				builder.setCoefficient(i, j, stok.nval);
+			}
+		}
+		A = builder.build();
+
+	}
+
+	/**
+	 * @return the dimension of the domain.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the matrix of coefficients.
+	 */
+	public CouplingMatrix getMatrix() {
+		return A;
+	}
+
+	/**
+	 * @return the canonical boxed instance of each element, which must not be
+	 *         modified.
+	 */
+	public Integer[] getElements() {
+		return elements;
+	}
+
+	/**
+	 * Gives the k strongest coupling partners of each variable. The lists are
+	 * built on the first request for a given k, and then shared by every
+	 * evaluator of the instance.
+	 *
+	 * @param k
+	 *            the maximum number of partners of each variable.
+	 * @return the partner lists.
+	 */
+	public synchronized CouplingPartners getCouplingPartners(int k) {
+		CouplingPartners partners = couplingPartners.get(k);
+		if (partners == null) {
+			partners = new CouplingPartners(A, k);
+			couplingPartners.put(k, partners);
+		}
+		return partners;
+	}
+
+	/**
+	 * Estimates the heap taken by the instance, which is what the
+	 * {@link InstanceCache} weighs it by.
+	 *
+	 * @return the approximate number of bytes of heap used.
+	 */
+	public long getHeapBytes() {
+		// A reference and a small Integer object per element
+		return A.getHeapBytes() + 20L * size;
+	}
+
+}
@@ -24,12 +24,40 @@ public class QBF_Inverse extends QBF {
 		super(filename);
 	}
 
+	/**
+	 * Constructor for the QBF_Inverse class, from an instance already read.
+	 *
+	 * @param instance
+	 *            the instance of the QBF.
+	 */
+	public QBF_Inverse(QBFInstance instance) {
+		super(instance);
+	}
+
+	/**
+	 * Copy constructor for the QBF_Inverse class.
+	 * 
+	 * @param other
+	 *            the QBF_Inverse being copied.
+	 */
+	protected QBF_Inverse(QBF_Inverse other) {
+		super(other);
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#copy()
+	 */
+	@Override
+	public QBF_Inverse copy() {
+		return new QBF_Inverse(this);
+	}
+
 
 	/* (non-Javadoc)
 	 * @see problems.qbf.QBF#evaluate()
 	 */
 	@Override
-	public Double evaluateQBF() {
+	public double evaluateQBF() {
 		return -super.evaluateQBF();
 	}
 	
@@ -37,7 +65,7 @@ public class QBF_Inverse extends QBF {
 	 * @see problems.qbf.QBF#evaluateInsertion(int)
 	 */
 	@Override
-	public Double evaluateInsertionQBF(int i) {	
+	public double evaluateInsertionQBF(int i) {	
 		return -super.evaluateInsertionQBF(i);
 	}
 	
@@ -45,7 +73,7 @@ public class QBF_Inverse extends QBF {
 	 * @see problems.qbf.QBF#evaluateRemoval(int)
 	 */
 	@Override
-	public Double evaluateRemovalQBF(int i) {
+	public double evaluateRemovalQBF(int i) {
 		return -super.evaluateRemovalQBF(i);
 	}
 	
@@ -53,8 +81,32 @@ public class QBF_Inverse extends QBF {
 	 * @see problems.qbf.QBF#evaluateExchange(int, int)
 	 */
 	@Override
-	public Double evaluateExchangeQBF(int in, int out) {
+	public double evaluateExchangeQBF(int in, int out) {
 		return -super.evaluateExchangeQBF(in,out);
 	}
 
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBoundInsertionQBF(int)
+	 */
+	@Override
+	public double evaluateBoundInsertionQBF(int i) {
+		return -super.evaluateBoundInsertionQBF(i);
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBoundRemovalQBF(int)
+	 */
+	@Override
+	public double evaluateBoundRemovalQBF(int i) {
+		return -super.evaluateBoundRemovalQBF(i);
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBoundExchangeQBF(int, int)
+	 */
+	@Override
+	public double evaluateBoundExchangeQBF(int in, int out) {
+		return -super.evaluateBoundExchangeQBF(in,out);
+	}
+
 }
@@ -0,0 +1,175 @@
+package problems.qbf;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamTokenizer;
+import java.util.HashSet;
+
+import problems.qbf.io.BinaryInstance;
+
+/**
+ * The data of a QBF instance with set-cover restrictions: on top of the
+ * dimension and the matrix of coefficients, the sets to be covered. Like a
+ * {@link QBFInstance}, it is never modified once read, and the set-cover
+ * counters live in each {@link QBF_SC_Inverse} evaluator.
+ */
+public class QBF_SC_Instance extends QBFInstance {
+    /**
+     * The sets of the set-cover restrictions. Set i holds the (0-indexed)
+     * elements it covers, and it is active while variable i is set to 1.
+     */
+    protected int[][] sets;
+
+    /**
+     * For each element, the indexes of the sets that contain it.
+     */
+    protected int[][] setsContaining;
+
+	/**
+	 * Reads an instance from a file, see {@link QBFInstance#QBFInstance(String)}.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public QBF_SC_Instance(String filename) throws IOException {
+		super(filename);
+	}
+
+	/**
+	 * Gives the instance of a file, reading it only if it is not in the
+	 * process-wide {@link InstanceCache} yet.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return the instance, possibly shared with other callers.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static QBF_SC_Instance load(String filename) throws IOException {
+		return InstanceCache.getDefault().get(filename, QBF_SC_Instance.class, QBF_SC_Instance::new);
+	}
+
+    /**
+	 * Responsible for reading the instance from an external file. this method
+	 * reads the domain's dimension, matrix {@link #A}, and sets for the
+	 * set-cover. A {@link BinaryInstance} of the QBF-SC kind is read as well.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return The dimension of the domain.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	@Override
+	protected Integer readInput(String filename) throws IOException {
+
+		if (BinaryInstance.isBinary(filename)) {
+			BinaryInstance instance = BinaryInstance.open(filename);
+			if (instance.getKind() != BinaryInstance.KIND_QBF_SC)
+				throw new IOException("Not a QBF-SC instance: " + filename);
+			readSets(instance.getSets());
+			A = instance.getMatrix();
+			return instance.getSize();
+		}
+
+		try (Reader fileInst = new BufferedReader(new FileReader(filename))) {
+			StreamTokenizer stok = new StreamTokenizer(fileInst);
+
+            // First line has the number of variables N
+			stok.nextToken();
+			Integer _size = (int) stok.nval;
+
+            // There are also N sets that will be used for the set-cover restrictions
+            int[][] _sets = new int[_size][];
+
+            // The next line has the sizes of each set
+            for (int i = 0; i < _size; i++) {
+                stok.nextToken();
+                _sets[i] = new int[(int) stok.nval];
+            }
+
+            // And the next N lines each contain the elements of the sets
+            for (int i = 0; i < _size; i++) {
+                for (int j = 0; j < _sets[i].length; j++) {
+                    stok.nextToken();
+                    _sets[i][j] = (int) stok.nval - 1; // Making it 0-index so we don't have to worry about it anywhere else
+                }
+            }
+            readSets(_sets);
+
+            // N x N is also the dimension of the matrix A
+            // The next N lines are rows of the matrix A
+            // We assume a superior triangular matrix
+			readMatrix(stok, _size);
+
+			return _size;
+		}
+	}
+
+    /**
+     * Sets {@link #sets}, without repeated elements and sorted, from the sets
+     * as given in an instance, and builds {@link #setsContaining}.
+     *
+     * @param _sets
+     *            the (0-indexed) elements of each set.
+     */
+    protected void readSets(int[][] _sets) {
+        int _size = _sets.length;
+        sets = new int[_size][];
+        int[] containingCount = new int[_size];
+        for (int i = 0; i < _size; i++) {
+            HashSet<Integer> set = new HashSet<Integer>();
+            for (int elem : _sets[i]) {
+                set.add(elem);
+            }
+            sets[i] = set.stream().mapToInt(Integer::intValue).sorted().toArray();
+            for (int elem : sets[i]) {
+                containingCount[elem]++;
+            }
+        }
+
+        // Inverse index, so that toggling a set can reach the sets sharing its elements
+        setsContaining = new int[_size][];
+        for (int elem = 0; elem < _size; elem++) {
+            setsContaining[elem] = new int[containingCount[elem]];
+            containingCount[elem] = 0;
+        }
+        for (int i = 0; i < _size; i++) {
+            for (int elem : sets[i]) {
+                setsContaining[elem][containingCount[elem]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @return the sets, which must not be modified.
+     */
+    public int[][] getSets() {
+        return sets;
+    }
+
+    /**
+     * @return the sets containing each element, which must not be modified.
+     */
+    public int[][] getSetsContaining() {
+        return setsContaining;
+    }
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBFInstance#getHeapBytes()
+	 */
+	@Override
+	public long getHeapBytes() {
+		long bytes = super.getHeapBytes();
+		for (int i = 0; i < size; i++) {
+			// Each element appears once in sets and once in setsContaining
+			bytes += 8L * sets[i].length + 32;
+		}
+		return bytes;
+	}
+
+}
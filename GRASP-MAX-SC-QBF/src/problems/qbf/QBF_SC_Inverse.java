@@ -1,19 +1,51 @@
 package problems.qbf;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StreamTokenizer;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+
+import solutions.Solution;
 
 public class QBF_SC_Inverse extends QBF_Inverse {
-    protected HashSet<Integer>[] sets;
+    /**
+     * The sets of the set-cover restrictions, shared with the instance, see
+     * {@link QBF_SC_Instance#sets}.
+     */
+    protected final int[][] sets;
+
+    /**
+     * For each element, the indexes of the sets that contain it.
+     */
+    protected final int[][] setsContaining;
+
+    /**
+     * For each element, how many active sets cover it.
+     */
+    protected final int[] coverage;
+
+    /**
+     * For each set, how many of its elements are covered exactly once. An
+     * active set with no such element can be disabled without uncovering
+     * anything.
+     */
+    protected final int[] criticalCount;
+
+    /**
+     * Bitset of the variables that can currently be set to zero, i.e., the
+     * active sets whose {@link #criticalCount} is zero.
+     */
+    protected final long[] removable;
+
+    /**
+     * Whether the counters above no longer match {@link #variables}. They get
+     * stale whenever the variables are rebuilt from a solution, and are then
+     * recomputed lazily on the next query.
+     */
+    protected boolean coverageStale;
 
 	/**
-	 * Constructor for the QBF_SC_Inverse class.
+	 * Constructor for the QBF_SC_Inverse class. The instance is read through
+	 * the {@link InstanceCache}.
 	 * 
 	 * @param filename
 	 *            Name of the file for which the objective function parameters
@@ -22,108 +54,177 @@ public class QBF_SC_Inverse extends QBF_Inverse {
 	 *             Necessary for I/O operations.
 	 */
 	public QBF_SC_Inverse(String filename) throws IOException {
-		super(filename);
+		this(QBF_SC_Instance.load(filename));
 	}
 
-    /**
-	 * Responsible for setting the QBF function parameters by reading the
-	 * necessary input from an external file. this method reads the domain's
-	 * dimension, matrix {@link #A}, and sets for the set-cover.
+	/**
+	 * Constructor for the QBF_SC_Inverse class, from an instance already
+	 * read. The sets are shared with the instance, while the set-cover
+	 * counters belong to this evaluator.
 	 * 
-	 * @param filename
-	 *            Name of the file containing the input for setting the black
-	 *            box function.
-	 * @return The dimension of the domain.
-	 * @throws IOException
-	 *             Necessary for I/O operations.
+	 * @param instance
+	 *            the instance of the QBF-SC.
 	 */
-	protected Integer readInput(String filename) throws IOException {
+	public QBF_SC_Inverse(QBF_SC_Instance instance) {
+		super(instance);
+        sets = instance.getSets();
+        setsContaining = instance.getSetsContaining();
+        coverage = new int[size];
+        criticalCount = new int[size];
+        removable = new long[(size + 63) >>> 6];
+        coverageStale = true;
+	}
 
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
+	/**
+	 * Copy constructor for the QBF_SC_Inverse class. The sets are shared with
+	 * the original, while the set-cover counters are not.
+	 * 
+	 * @param other
+	 *            the QBF_SC_Inverse being copied.
+	 */
+	protected QBF_SC_Inverse(QBF_SC_Inverse other) {
+		this((QBF_SC_Instance) other.instance);
+	}
 
-        // First line has the number of variables N
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#copy()
+	 */
+	@Override
+	public QBF_SC_Inverse copy() {
+		return new QBF_SC_Inverse(this);
+	}
 
-        // There are also N sets that will be used for the set-cover restrictions
-		sets = (HashSet<Integer>[]) new HashSet[_size];
-        Integer[] setSizes = new Integer[_size];
+    /**
+     * {@inheritDoc} The set-cover counters are marked as stale and will be
+     * recomputed on the next query.
+     */
+    @Override
+    public void setVariables(Solution<Integer> sol) {
+        super.setVariables(sol);
+        coverageStale = true;
+    }
 
-        // The next line has the sizes of each set
-        for (int i = 0; i < _size; i++) {
-            sets[i] = new HashSet<Integer>();
-            stok.nextToken();
-            setSizes[i] = (int) stok.nval;
+    /**
+     * {@inheritDoc} Toggling a variable enables or disables its set, so the
+     * set-cover counters are updated in O(|set|) as well.
+     */
+    @Override
+    protected void setVariable(int i, double value) {
+        boolean wasActive = variables[i] == 1.0;
+        super.setVariable(i, value);
+        boolean isActive = variables[i] == 1.0;
+        if (coverageStale || wasActive == isActive) {
+            return;
         }
 
-        // And the next N lines each contain the elements of the sets
-        for (int i = 0; i < _size; i++) {
-            for (int j = 0; j < setSizes[i]; j++) {
-                stok.nextToken();
-                Integer elem = (int) stok.nval - 1; // Making it 0-index so we don't have to worry about it anywhere else
-                sets[i].add(elem);
+        for (int elem : sets[i]) {
+            int before = coverage[elem];
+            int after = isActive ? before + 1 : before - 1;
+            coverage[elem] = after;
+            // Only crossing the "covered exactly once" mark changes the critical counts
+            if (before == 1 || after == 1) {
+                int change = (after == 1) ? 1 : -1;
+                for (int setIndex : setsContaining[elem]) {
+                    criticalCount[setIndex] += change;
+                    updateRemovable(setIndex);
+                }
             }
         }
+        updateRemovable(i);
+    }
 
-        // N x N is also the dimension of the matrix A
-		A = new Double[_size][_size];
-        // The next N lines are rows of the matrix A
-        // We assume a superior triangular matrix
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				if (j>i)
-					A[j][i] = 0.0;
-			}
-		}
-
-		return _size;
-	}
+    /**
+     * Tells whether variable i can be set to zero without leaving some element
+     * uncovered.
+     * 
+     * @param i
+     *            index of the variable.
+     * @return true if the set of variable i is active and can be disabled.
+     */
+    public boolean canBeSetToZero(int i) {
+        if (coverageStale) {
+            rebuildCoverage();
+        }
+        return (removable[i >>> 6] & (1L << i)) != 0;
+    }
 
     public ArrayList<Integer> getVariablesThatCanBeSetToZero() {
-        // Sets go from 0 to N-1
-        // This will list all sets that are still being used to cover the elements
-        ArrayList<Integer> setIndexesEnabled = new ArrayList<>();
+        ArrayList<Integer> variablesThatCanBeSetToZero = new ArrayList<>();
+        getVariablesThatCanBeSetToZero(variablesThatCanBeSetToZero);
+        return variablesThatCanBeSetToZero;
+    }
 
-        for (int i = 0; i < size; i++) {
-            // When a variable is set to 1, it means the set covering it is still active
-            if (variables[i] == 1.0) {
-                setIndexesEnabled.add(i);
-            }
+    /**
+     * Fills a list with the variables that can be set to zero, in ascending
+     * order, replacing its previous contents. The list is reused and the
+     * elements are the canonical instances of {@link #getElement(int)}, so
+     * nothing is allocated once the list has grown to its working size.
+     * 
+     * @param variablesThatCanBeSetToZero
+     *            the list to be filled.
+     */
+    public void getVariablesThatCanBeSetToZero(ArrayList<Integer> variablesThatCanBeSetToZero) {
+        if (coverageStale) {
+            rebuildCoverage();
         }
 
-        // We count how many times each element (variable) is covered
-        HashMap<Integer, Integer> elementCoverageCount = new HashMap<>();
-        for (int setIndex : setIndexesEnabled) {
-            for (Integer elem : sets[setIndex]) {
-                elementCoverageCount.put(
-                    elem, 
-                    elementCoverageCount.getOrDefault(elem, 0) + 1
-                );
+        variablesThatCanBeSetToZero.clear();
+        for (int word = 0; word < removable.length; word++) {
+            long bits = removable[word];
+            while (bits != 0) {
+                variablesThatCanBeSetToZero.add(elements[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
             }
         }
+    }
 
-        ArrayList<Integer> variablesThatCanBeSetToZero = new ArrayList<>();
+    /**
+     * Recomputes the set-cover counters from scratch, given the current
+     * values of {@link #variables}.
+     */
+    protected void rebuildCoverage() {
+        // We count how many times each element (variable) is covered by the active sets
+        // When a variable is set to 1, it means the set covering it is still active
+        Arrays.fill(coverage, 0);
         for (int i = 0; i < size; i++) {
             if (variables[i] == 1.0) {
-                boolean canBeSetToZero = true;
-                for (Integer elem : sets[i]) {
-                    // If we set variable i to 0, we disable a set
-                    // If there are elements in the set that are only covered once, they will not be covered anymore
-                    // So we can't set this variable to 0
-                    if (elementCoverageCount.getOrDefault(elem, 0) == 1) {
-                        canBeSetToZero = false;
-                        break;
-                    }
+                for (int elem : sets[i]) {
+                    coverage[elem]++;
                 }
-                if (canBeSetToZero) {
-                    variablesThatCanBeSetToZero.add(i);
+            }
+        }
+
+        // If we set variable i to 0, we disable a set
+        // If there are elements in the set that are only covered once, they will not be covered anymore
+        // So we can't set this variable to 0
+        for (int i = 0; i < size; i++) {
+            int critical = 0;
+            for (int elem : sets[i]) {
+                if (coverage[elem] == 1) {
+                    critical++;
                 }
             }
+            criticalCount[i] = critical;
+        }
+
+        Arrays.fill(removable, 0L);
+        for (int i = 0; i < size; i++) {
+            updateRemovable(i);
+        }
+        coverageStale = false;
+    }
+
+    /**
+     * Updates the bit of variable i in {@link #removable}.
+     * 
+     * @param i
+     *            index of the variable.
+     */
+    private void updateRemovable(int i) {
+        if (variables[i] == 1.0 && criticalCount[i] == 0) {
+            removable[i >>> 6] |= 1L << i;
+        } else {
+            removable[i >>> 6] &= ~(1L << i);
         }
-        
-        return variablesThatCanBeSetToZero;
     }
 }
@@ -0,0 +1,35 @@
+package problems.qbf.constructive_strategies;
+
+import metaheuristics.grasp.AbstractGRASP;
+import problems.IncrementalEvaluator;
+import solutions.Solution;
+
+/**
+ * A constructive heuristic of the GRASP, which fills an empty solution with
+ * candidates picked in a greedy-random fashion. Like the search strategies,
+ * a constructive strategy keeps no state between calls, so it can be shared
+ * by several solvers, including concurrent ones.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public abstract class AbstractConstructiveStrategy<E> {
+    /**
+     * Builds a solution, inserting candidates of the solver's Candidate List
+     * into it.
+     *
+     * @param ObjFunction
+     *            The objective function, bound to the solution.
+     * @param solution
+     *            The solution being built, initially empty.
+     * @param solver
+     *            The solver, which provides the Candidate List and the random
+     *            number generator of the current iteration.
+     * @return The solution built.
+     */
+    public abstract Solution<E> constructiveHeuristic(
+        IncrementalEvaluator<E> ObjFunction,
+        Solution<E> solution,
+        AbstractGRASP<E> solver
+    );
+}
@@ -0,0 +1,92 @@
+package problems.qbf.constructive_strategies;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
+import solutions.Solution;
+
+/**
+ * Random plus greedy construction (Resende and Werneck): the first
+ * {@link #randomSteps} candidates are picked uniformly at random, without
+ * being evaluated, and the solution is then completed greedily, inserting the
+ * best candidate at each step until an insertion does not improve the
+ * solution. The random prefix is what diversifies the solutions, so the
+ * number of random steps plays the role of alpha.
+ */
+public class RandomPlusGreedyConstructiveStrategy<E> extends AbstractConstructiveStrategy<E> {
+    /**
+     * the number of candidates picked at random before the greedy steps
+     */
+    private final int randomSteps;
+
+    /**
+     * @param randomSteps
+     *            The number of candidates picked at random before the greedy
+     *            steps.
+     */
+    public RandomPlusGreedyConstructiveStrategy(int randomSteps) {
+        if (randomSteps < 0)
+            throw new IllegalArgumentException("The number of random steps must not be negative: " + randomSteps);
+        this.randomSteps = randomSteps;
+    }
+
+    public int getRandomSteps() {
+        return randomSteps;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see problems.qbf.constructive_strategies.AbstractConstructiveStrategy#constructiveHeuristic(problems.IncrementalEvaluator,
+     * solutions.Solution, metaheuristics.grasp.AbstractGRASP)
+     */
+    @Override
+    public Solution<E> constructiveHeuristic(
+        IncrementalEvaluator<E> ObjFunction,
+        Solution<E> solution,
+        AbstractGRASP<E> solver
+    ) {
+        SplittableRandom rng = solver.getRng();
+        long evaluations = 0, checkedAt = 0;
+
+        for (int step = 0; ; step++) {
+            double cost = solution.cost;
+            solver.updateCL();
+            ArrayList<E> cl = solver.getCLView();
+            int nCandidates = cl.size();
+            if (nCandidates == 0)
+                break;
+
+            if (step < randomSteps) {
+                ObjFunction.applyInsertion(cl.get(rng.nextInt(nCandidates)));
+                continue;
+            }
+
+            E bestCand = null;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < nCandidates; k++) {
+                double deltaCost = ObjFunction.evaluateInsertionDelta(cl.get(k));
+                if (deltaCost < bestCost) {
+                    bestCost = deltaCost;
+                    bestCand = cl.get(k);
+                }
+            }
+            evaluations += nCandidates;
+            ObjFunction.applyInsertion(bestCand);
+            if (solution.cost >= cost)
+                break;
+            // Stop early, with the candidates inserted so far, once the deadline expires
+            if (evaluations - checkedAt >= Deadline.CHECK_PERIOD) {
+                checkedAt = evaluations;
+                if (solver.getDeadline().isExpired())
+                    break;
+            }
+        }
+
+        solver.countEvaluations(evaluations, 0, 0);
+        return solution;
+    }
+}
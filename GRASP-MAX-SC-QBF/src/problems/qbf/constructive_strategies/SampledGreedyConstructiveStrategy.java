@@ -0,0 +1,110 @@
+package problems.qbf.constructive_strategies;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
+import solutions.Solution;
+
+/**
+ * Sampled greedy construction (Resende and Werneck): at each step, only
+ * {@link #sampleSize} candidates, drawn at random from the Candidate List,
+ * are evaluated, and the best of them is inserted. A step thus costs
+ * O(sampleSize) evaluations instead of O(|CL|), and the size of the sample
+ * plays the role of alpha: the smaller it is, the more random the
+ * construction. Insertions go on until one of them does not improve the
+ * solution.
+ */
+public class SampledGreedyConstructiveStrategy<E> extends AbstractConstructiveStrategy<E> {
+    /**
+     * the number of candidates evaluated at each step
+     */
+    private final int sampleSize;
+
+    /**
+     * @param sampleSize
+     *            The number of candidates evaluated at each step.
+     */
+    public SampledGreedyConstructiveStrategy(int sampleSize) {
+        if (sampleSize < 1)
+            throw new IllegalArgumentException("The sample size must be positive: " + sampleSize);
+        this.sampleSize = sampleSize;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see problems.qbf.constructive_strategies.AbstractConstructiveStrategy#constructiveHeuristic(problems.IncrementalEvaluator,
+     * solutions.Solution, metaheuristics.grasp.AbstractGRASP)
+     */
+    @Override
+    public Solution<E> constructiveHeuristic(
+        IncrementalEvaluator<E> ObjFunction,
+        Solution<E> solution,
+        AbstractGRASP<E> solver
+    ) {
+        SplittableRandom rng = solver.getRng();
+        // The step at which each position of the CL was last drawn, so that a
+        // sample is drawn without replacement in O(sampleSize) expected time
+        int[] drawnAt = new int[0];
+        int step = 0;
+        double cost;
+        long evaluations = 0, checkedAt = 0;
+
+        do {
+            cost = solution.cost;
+            solver.updateCL();
+            ArrayList<E> cl = solver.getCLView();
+            int nCandidates = cl.size();
+            if (nCandidates == 0)
+                break;
+            step++;
+
+            E bestCand = null;
+            double bestCost = Double.POSITIVE_INFINITY;
+            if (2 * sampleSize >= nCandidates) {
+                // Rejection sampling gets slow as the sample nears the whole CL
+                for (int k = 0; k < nCandidates; k++) {
+                    double deltaCost = ObjFunction.evaluateInsertionDelta(cl.get(k));
+                    if (deltaCost < bestCost) {
+                        bestCost = deltaCost;
+                        bestCand = cl.get(k);
+                    }
+                }
+                evaluations += nCandidates;
+            } else {
+                if (drawnAt.length < nCandidates)
+                    drawnAt = new int[Math.max(nCandidates, 2 * drawnAt.length)];
+                for (int s = 0; s < sampleSize; s++) {
+                    int k;
+                    do {
+                        k = rng.nextInt(nCandidates);
+                    } while (drawnAt[k] == step);
+                    drawnAt[k] = step;
+                    double deltaCost = ObjFunction.evaluateInsertionDelta(cl.get(k));
+                    if (deltaCost < bestCost) {
+                        bestCost = deltaCost;
+                        bestCand = cl.get(k);
+                    }
+                }
+                evaluations += sampleSize;
+            }
+            ObjFunction.applyInsertion(bestCand);
+            // Stop early, with the candidates inserted so far, once the deadline expires
+            if (evaluations - checkedAt >= Deadline.CHECK_PERIOD) {
+                checkedAt = evaluations;
+                if (solver.getDeadline().isExpired())
+                    break;
+            }
+        } while (cost > solution.cost);
+
+        solver.countEvaluations(evaluations, 0, 0);
+        return solution;
+    }
+}
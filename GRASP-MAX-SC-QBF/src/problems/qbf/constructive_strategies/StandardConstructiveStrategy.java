@@ -0,0 +1,80 @@
+package problems.qbf.constructive_strategies;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
+import solutions.Solution;
+
+/**
+ * The standard GRASP construction: at each step, every candidate is
+ * evaluated, and one is picked at random among those whose cost variation is
+ * within the threshold min + alpha*(max - min). Insertions go on until one of
+ * them does not improve the solution.
+ */
+public class StandardConstructiveStrategy<E> extends AbstractConstructiveStrategy<E> {
+    /*
+     * (non-Javadoc)
+     *
+     * @see problems.qbf.constructive_strategies.AbstractConstructiveStrategy#constructiveHeuristic(problems.IncrementalEvaluator,
+     * solutions.Solution, metaheuristics.grasp.AbstractGRASP)
+     */
+    @Override
+    public Solution<E> constructiveHeuristic(
+        IncrementalEvaluator<E> ObjFunction,
+        Solution<E> solution,
+        AbstractGRASP<E> solver
+    ) {
+        SplittableRandom rng = solver.getRng();
+        double alpha = solver.getAlpha();
+        double[] candidateCosts = solver.getCandidateCosts();
+        double cost;
+        long evaluations = 0, checkedAt = 0;
+
+        do {
+            cost = solution.cost;
+            solver.updateCL();
+            ArrayList<E> cl = solver.getCLView();
+            int nCandidates = cl.size();
+            if (nCandidates == 0)
+                break;
+
+            // Evaluate every candidate, keeping the lowest and highest cost variations
+            double minCost = Double.POSITIVE_INFINITY, maxCost = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < nCandidates; k++) {
+                double deltaCost = ObjFunction.evaluateInsertionDelta(cl.get(k));
+                candidateCosts[k] = deltaCost;
+                minCost = Math.min(minCost, deltaCost);
+                maxCost = Math.max(maxCost, deltaCost);
+            }
+            evaluations += nCandidates;
+
+            // Pick one of the candidates within the threshold, i.e., of the
+            // RCL, without building the RCL itself
+            double threshold = minCost + alpha * (maxCost - minCost);
+            int rclSize = 0;
+            for (int k = 0; k < nCandidates; k++) {
+                if (candidateCosts[k] <= threshold)
+                    rclSize++;
+            }
+            int rndIndex = rng.nextInt(rclSize);
+            for (int k = 0; k < nCandidates; k++) {
+                if (candidateCosts[k] <= threshold && rndIndex-- == 0) {
+                    ObjFunction.applyInsertion(cl.get(k));
+                    break;
+                }
+            }
+            // Stop early, with the candidates inserted so far, once the deadline expires
+            if (evaluations - checkedAt >= Deadline.CHECK_PERIOD) {
+                checkedAt = evaluations;
+                if (solver.getDeadline().isExpired())
+                    break;
+            }
+        } while (cost > solution.cost);
+
+        solver.countEvaluations(evaluations, 0, 0);
+        return solution;
+    }
+}
@@ -0,0 +1,237 @@
+package problems.qbf.io;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import problems.qbf.matrices.MappedCouplingMatrix;
+
+/**
+ * An instance in the binary format written by {@link InstanceConverter},
+ * loaded by memory-mapping its file. All values are little-endian, laid out
+ * as follows:
+ * <ul>
+ * <li>header (48 bytes): magic number, format version, kind of instance
+ * ({@link #KIND_QBF}, {@link #KIND_KQBF} or {@link #KIND_QBF_SC}), dimension
+ * n, bytes per coefficient (8 for doubles, 4 for floats), a reserved int,
+ * number of set elements (long), offset of the coefficient block (long) and
+ * knapsack capacity (double);</li>
+ * <li>for a KQBF instance, the n knapsack weights as doubles;</li>
+ * <li>for a QBF-SC instance, the n set sizes as ints, followed by the
+ * elements of every set, 0-indexed, as ints;</li>
+ * <li>padding up to a multiple of 8 bytes, then the coefficient block: the
+ * upper triangular matrix A, row i holding A[i][i] .. A[i][n-1].</li>
+ * </ul>
+ * The sets and weights are small and copied onto the heap, while the
+ * coefficients are read from the mapping by a {@link MappedCouplingMatrix}.
+ * The coefficient block is mapped in chunks, since a single mapping holds
+ * at most 2 GB, so only the sections before it are limited to that size.
+ */
+public class BinaryInstance {
+
+	/**
+	 * "QBFB" as a little-endian int
+	 */
+	public static final int MAGIC = 0x42464251;
+
+	public static final int VERSION = 1;
+
+	public static final int KIND_QBF = 0;
+
+	public static final int KIND_KQBF = 1;
+
+	public static final int KIND_QBF_SC = 2;
+
+	public static final int HEADER_BYTES = 48;
+
+	private final int kind;
+
+	private final int size;
+
+	private final double capacity;
+
+	private final double[] weights;
+
+	private final int[][] sets;
+
+	private final MappedCouplingMatrix matrix;
+
+	private BinaryInstance(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0)
+				throw new IOException("Not a binary instance");
+		}
+		if (header.getInt(0) != MAGIC)
+			throw new IOException("Not a binary instance");
+		if (header.getInt(4) != VERSION)
+			throw new IOException("Unsupported binary instance version: " + header.getInt(4));
+		kind = header.getInt(8);
+		size = header.getInt(12);
+		int bytesPerCoefficient = header.getInt(16);
+		long setElements = header.getLong(24);
+		long coefficientsOffset = header.getLong(32);
+		capacity = header.getDouble(40);
+		if (bytesPerCoefficient != 8 && bytesPerCoefficient != 4)
+			throw new IOException("Unsupported coefficient size: " + bytesPerCoefficient);
+		if (coefficientsOffset > Integer.MAX_VALUE)
+			throw new IOException("Binary instance too large: its sets take " + coefficientsOffset
+					+ " bytes, over the 2 GB a single mapping holds");
+
+		// The sections before the coefficient block
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, coefficientsOffset);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.position(HEADER_BYTES);
+		if (kind == KIND_KQBF) {
+			weights = new double[size];
+			buffer.asDoubleBuffer().get(weights);
+			sets = null;
+		} else if (kind == KIND_QBF_SC) {
+			weights = null;
+			sets = new int[size][];
+			IntBuffer ints = buffer.asIntBuffer();
+			for (int i = 0; i < size; i++) {
+				sets[i] = new int[ints.get(i)];
+			}
+			ints.position(size);
+			for (int i = 0; i < size; i++) {
+				ints.get(sets[i]);
+			}
+			if (ints.position() != size + setElements)
+				throw new IOException("Corrupt binary instance: set elements do not match the header");
+		} else if (kind == KIND_QBF) {
+			weights = null;
+			sets = null;
+		} else {
+			throw new IOException("Unknown kind of binary instance: " + kind);
+		}
+
+		matrix = new MappedCouplingMatrix(size, mapCoefficients(channel, coefficientsOffset, bytesPerCoefficient),
+				bytesPerCoefficient);
+	}
+
+	/**
+	 * Maps the coefficient block in chunks of
+	 * {@code 2^MappedCouplingMatrix.CHUNK_SHIFT} coefficients.
+	 */
+	private ByteBuffer[] mapCoefficients(FileChannel channel, long offset, int bytesPerCoefficient) throws IOException {
+		long coefficients = size * (size + 1L) / 2;
+		long blockBytes = coefficients * bytesPerCoefficient;
+		if (channel.size() - offset < blockBytes)
+			throw new IOException("Corrupt binary instance: " + (channel.size() - offset) + " bytes of coefficients, "
+					+ blockBytes + " expected");
+		long chunkBytes = (long) bytesPerCoefficient << MappedCouplingMatrix.CHUNK_SHIFT;
+		long nChunks = (blockBytes + chunkBytes - 1) / chunkBytes;
+		if (nChunks > Integer.MAX_VALUE)
+			throw new IOException("Binary instance too large to be mapped: " + blockBytes + " bytes of coefficients");
+
+		ByteBuffer[] chunks = new ByteBuffer[(int) nChunks];
+		for (int c = 0; c < chunks.length; c++) {
+			long start = c * chunkBytes;
+			chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.min(chunkBytes, blockBytes - start));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Tells whether a file holds a binary instance, by its magic number.
+	 *
+	 * @param filename
+	 *            the file.
+	 * @return true if the file starts with {@link #MAGIC}.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static boolean isBinary(String filename) throws IOException {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+			return Integer.reverseBytes(in.readInt()) == MAGIC;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Opens a binary instance, memory-mapping its file. The file can be
+	 * closed right away, since the mappings remain valid on their own.
+	 *
+	 * @param filename
+	 *            the file.
+	 * @return the instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static BinaryInstance open(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			return new BinaryInstance(channel);
+		}
+	}
+
+	/**
+	 * Gives the offset of the coefficient block of an instance, which
+	 * follows the header and the sections of its kind.
+	 */
+	static long coefficientsOffset(int kind, int size, long setElements) {
+		long offset = HEADER_BYTES;
+		if (kind == KIND_KQBF)
+			offset += 8L * size;
+		else if (kind == KIND_QBF_SC)
+			offset += 4L * size + 4L * setElements;
+		return (offset + 7) & ~7L;
+	}
+
+	/**
+	 * Writes the header of an instance.
+	 */
+	static void writeHeader(ByteBuffer buffer, int kind, int size, int bytesPerCoefficient, long setElements, double capacity) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(size).putInt(bytesPerCoefficient).putInt(0);
+		buffer.putLong(setElements).putLong(coefficientsOffset(kind, size, setElements)).putDouble(capacity);
+	}
+
+	public int getKind() {
+		return kind;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the knapsack capacity of a KQBF instance, 0 otherwise.
+	 */
+	public double getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the knapsack weights of a KQBF instance, null otherwise.
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+
+	/**
+	 * @return the (0-indexed) elements of each set of a QBF-SC instance, as
+	 *         given in the original instance, null for other kinds.
+	 */
+	public int[][] getSets() {
+		return sets;
+	}
+
+	/**
+	 * @return the matrix of couplings, read from the mapping.
+	 */
+	public MappedCouplingMatrix getMatrix() {
+		return matrix;
+	}
+
+}
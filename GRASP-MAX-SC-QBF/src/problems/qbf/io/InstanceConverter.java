@@ -0,0 +1,151 @@
+package problems.qbf.io;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts instances from the text formats (qbf, kqbf and qbf-sc) to the
+ * binary format of {@link BinaryInstance}. The coefficients are streamed to
+ * the output row by row, so the matrix is never held in memory.
+ *
+ * Usage: {@code java -cp bin problems.qbf.io.InstanceConverter <qbf|kqbf|qbf-sc> <input> <output> [float]},
+ * where {@code float} stores the coefficients as 4-byte floats instead of
+ * doubles, which is exact for integer coefficients up to 2^24 in magnitude.
+ */
+public class InstanceConverter {
+
+	/**
+	 * size of the output buffer, flushed to the file whenever it fills up
+	 */
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: InstanceConverter <qbf|kqbf|qbf-sc> <input> <output> [float]");
+			System.exit(1);
+		}
+		boolean floats = args.length > 3 && args[3].equals("float");
+		convert(args[0], args[1], args[2], floats);
+	}
+
+	/**
+	 * Converts a text instance to the binary format.
+	 *
+	 * @param format
+	 *            the text format of the input: qbf, kqbf or qbf-sc.
+	 * @param input
+	 *            the text instance.
+	 * @param output
+	 *            the binary instance to be written.
+	 * @param floats
+	 *            whether the coefficients are stored as floats rather than
+	 *            doubles.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static void convert(String format, String input, String output, boolean floats) throws IOException {
+		int kind;
+		switch (format) {
+		case "qbf": kind = BinaryInstance.KIND_QBF; break;
+		case "kqbf": kind = BinaryInstance.KIND_KQBF; break;
+		case "qbf-sc": kind = BinaryInstance.KIND_QBF_SC; break;
+		default: throw new IllegalArgumentException("Unknown instance format: " + format);
+		}
+
+		try (Reader fileInst = new BufferedReader(new FileReader(input));
+				FileChannel out = FileChannel.open(Paths.get(output), StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			StreamTokenizer stok = new StreamTokenizer(fileInst);
+			int size = (int) next(stok);
+
+			// The sections before the matrix are small enough to be read first
+			double capacity = 0.0;
+			double[] weights = null;
+			int[][] sets = null;
+			long setElements = 0;
+			if (kind == BinaryInstance.KIND_KQBF) {
+				capacity = next(stok);
+				weights = new double[size];
+				for (int i = 0; i < size; i++) {
+					weights[i] = next(stok);
+				}
+			} else if (kind == BinaryInstance.KIND_QBF_SC) {
+				sets = new int[size][];
+				for (int i = 0; i < size; i++) {
+					sets[i] = new int[(int) next(stok)];
+					setElements += sets[i].length;
+				}
+				for (int i = 0; i < size; i++) {
+					for (int j = 0; j < sets[i].length; j++) {
+						sets[i][j] = (int) next(stok) - 1;
+					}
+				}
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			BinaryInstance.writeHeader(buffer, kind, size, floats ? 4 : 8, setElements, capacity);
+			if (weights != null) {
+				for (double w : weights) {
+					put(out, buffer, 8).putDouble(w);
+				}
+			}
+			if (sets != null) {
+				for (int[] set : sets) {
+					put(out, buffer, 4).putInt(set.length);
+				}
+				for (int[] set : sets) {
+					for (int elem : set) {
+						put(out, buffer, 4).putInt(elem);
+					}
+				}
+			}
+			long padding = BinaryInstance.coefficientsOffset(kind, size, setElements) - (out.position() + buffer.position());
+			for (long p = 0; p < padding; p++) {
+				put(out, buffer, 1).put((byte) 0);
+			}
+
+			for (int i = 0; i < size; i++) {
+				for (int j = i; j < size; j++) {
+					double a = next(stok);
+					if (floats)
+						put(out, buffer, 4).putFloat((float) a);
+					else
+						put(out, buffer, 8).putDouble(a);
+				}
+			}
+			flush(out, buffer);
+		}
+	}
+
+	private static double next(StreamTokenizer stok) throws IOException {
+		if (stok.nextToken() != StreamTokenizer.TT_NUMBER)
+			throw new IOException("Unexpected end of instance at line " + stok.lineno());
+		return stok.nval;
+	}
+
+	/**
+	 * Makes room in the buffer for a value, flushing it if needed.
+	 */
+	private static ByteBuffer put(FileChannel out, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() < bytes)
+			flush(out, buffer);
+		return buffer;
+	}
+
+	private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,159 @@
+package problems.qbf.matrices;
+
+/**
+ * The matrix of coefficients of a QBF, in symmetrized form: the coupling of
+ * two distinct variables i and j is the coefficient A[i][j] + A[j][i] of the
+ * term x_i*x_j, so that row i alone describes every quadratic term involving
+ * variable i. The diagonal, i.e., the linear terms, is kept apart from the
+ * couplings, and the rows never include it.
+ *
+ * Implementations are read-only once built, hence a matrix can be shared by
+ * any number of evaluators, including concurrent ones. They are obtained
+ * through a {@link CouplingMatrixBuilder}, which picks the storage that best
+ * suits the density of the matrix.
+ */
+public abstract class CouplingMatrix {
+
+	/**
+	 * the dimension of the matrix
+	 */
+	protected final int size;
+
+	/**
+	 * the diagonal of the matrix, i.e., the linear terms of the QBF
+	 */
+	protected final double[] diagonal;
+
+	/**
+	 * the largest absolute coupling of each row
+	 */
+	protected final double[] maxAbsCoupling;
+
+	protected CouplingMatrix(int size, double[] diagonal) {
+		this.size = size;
+		this.diagonal = diagonal;
+		this.maxAbsCoupling = new double[size];
+	}
+
+	/**
+	 * @return the dimension of the matrix.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gives the linear coefficient A[i][i].
+	 *
+	 * @param i
+	 *            index of the variable.
+	 * @return the diagonal entry of row i.
+	 */
+	public double getDiagonal(int i) {
+		return diagonal[i];
+	}
+
+	/**
+	 * Gives the largest absolute coupling of a variable with any other one.
+	 *
+	 * @param i
+	 *            index of the variable.
+	 * @return the largest |A[i][j] + A[j][i]| over j != i.
+	 */
+	public double getMaxAbsCoupling(int i) {
+		return maxAbsCoupling[i];
+	}
+
+	/**
+	 * Gives the coupling between two distinct variables.
+	 *
+	 * @param i
+	 *            index of the first variable.
+	 * @param j
+	 *            index of the second variable, different from i.
+	 * @return A[i][j] + A[j][i].
+	 */
+	public abstract double getCoupling(int i, int j);
+
+	/**
+	 * Computes the dot product of row i of the couplings and a vector, i.e.,
+	 * \sum{j != i}{(A[i][j] + A[j][i])*x_j}.
+	 *
+	 * @param i
+	 *            the row.
+	 * @param x
+	 *            the vector, of dimension {@link #getSize()}.
+	 * @return the dot product.
+	 */
+	public abstract double dotRow(int i, double[] x);
+
+	/**
+	 * Same as {@link #dotRow(int, double[])}, but only over the columns j > i,
+	 * which is what a full evaluation of the QBF needs.
+	 *
+	 * @param i
+	 *            the row.
+	 * @param x
+	 *            the vector, of dimension {@link #getSize()}.
+	 * @return the dot product of the upper half of the row.
+	 */
+	public abstract double dotUpperRow(int i, double[] x);
+
+	/**
+	 * Adds a multiple of row i of the couplings to a vector, i.e., y_j +=
+	 * scale*(A[i][j] + A[j][i]) for every j != i.
+	 *
+	 * @param i
+	 *            the row.
+	 * @param scale
+	 *            the multiplier of the row.
+	 * @param y
+	 *            the vector being updated, of dimension {@link #getSize()}.
+	 */
+	public abstract void addRow(int i, double scale, double[] y);
+
+	/**
+	 * Lists the variables coupled with variable i, i.e., the columns of the
+	 * nonzero couplings of row i, in ascending order.
+	 *
+	 * @param i
+	 *            the row.
+	 * @param columns
+	 *            array receiving the columns, of dimension at least
+	 *            {@link #getSize()}.
+	 * @return the number of columns written.
+	 */
+	public abstract int getCoupledVariables(int i, int[] columns);
+
+	/**
+	 * @return the number of nonzero couplings, counting both (i, j) and
+	 *         (j, i).
+	 */
+	public abstract long getNonZeros();
+
+	/**
+	 * Estimates the heap taken by the matrix, counting its arrays but not the
+	 * object headers. It is what an instance cache weighs the matrix by.
+	 *
+	 * @return the approximate number of bytes of heap used.
+	 */
+	public long getHeapBytes() {
+		// The diagonal and the largest couplings
+		return 16L * size;
+	}
+
+	/**
+	 * Computes the largest absolute coupling of each row, once the subclass
+	 * has filled the couplings.
+	 */
+	protected void computeMaxAbsCouplings() {
+		int[] columns = new int[size];
+		for (int i = 0; i < size; i++) {
+			int n = getCoupledVariables(i, columns);
+			for (int k = 0; k < n; k++) {
+				maxAbsCoupling[i] = Math.max(maxAbsCoupling[i], Math.abs(getCoupling(i, columns[k])));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,281 @@
+package problems.qbf.matrices;
+
+import java.util.Arrays;
+
+/**
+ * Collects the coefficients of a QBF as they are read from an instance, and
+ * builds the {@link CouplingMatrix} that stores them. The coefficients are
+ * kept as per-row lists of nonzeros until the whole matrix is known, so that
+ * the storage can be chosen from the measured density: a
+ * {@link DenseCouplingMatrix} when at least {@link #DENSITY_THRESHOLD} of the
+ * couplings are nonzero, a {@link SparseCouplingMatrix} otherwise, or when
+ * the dense array would not fit in a Java array.
+ *
+ * The dense couplings are stored in the narrowest type that holds them
+ * exactly: every bundled instance has small integer coefficients, which go
+ * into a {@link NarrowDenseCouplingMatrix.OfShort} or a
+ * {@link NarrowDenseCouplingMatrix.OfInt} instead of an array of doubles. The {@link CoefficientMode} can be set
+ * through the {@code qbf.coefficients} system property as well.
+ *
+ * The instances give A as an upper triangular matrix, which is how the
+ * coefficients are expected here: A[i][j] with i &lt; j, row by row, the
+ * columns of each row in ascending order.
+ */
+public class CouplingMatrixBuilder {
+
+	/**
+	 * Fraction of nonzero couplings from which the dense storage is used.
+	 * Below it, the sparse row scans touch few enough entries to make up for
+	 * their indirect accesses.
+	 */
+	public static final double DENSITY_THRESHOLD = 0.3;
+
+	/**
+	 * Largest dimension whose n*n dense array fits in a Java array.
+	 */
+	public static final int MAX_DENSE_SIZE = 46340;
+
+	/**
+	 * How the dense couplings are stored.
+	 */
+	public enum CoefficientMode {
+		/**
+		 * in the narrowest integer type that holds them if they are all
+		 * integers, as doubles otherwise
+		 */
+		AUTO,
+		/**
+		 * as doubles
+		 */
+		DOUBLE,
+		/**
+		 * as floats, rounding them if needed
+		 */
+		FLOAT
+	}
+
+	private final int size;
+
+	private final double[] diagonal;
+
+	/**
+	 * the columns and values of the nonzero coefficients of the upper half of
+	 * each row, and how many of them there are
+	 */
+	private final int[][] columns;
+
+	private final double[][] values;
+
+	private final int[] counts;
+
+	private long nonZeros;
+
+	/**
+	 * whether every coupling seen so far is an integer, and the largest
+	 * absolute coupling
+	 */
+	private boolean integral = true;
+
+	private double maxAbsValue;
+
+	private CoefficientMode coefficientMode = CoefficientMode.valueOf(
+			System.getProperty("qbf.coefficients", CoefficientMode.AUTO.name()).toUpperCase());
+
+	/**
+	 * Constructor for the CouplingMatrixBuilder class.
+	 *
+	 * @param size
+	 *            the dimension of the matrix.
+	 */
+	public CouplingMatrixBuilder(int size) {
+		this.size = size;
+		this.diagonal = new double[size];
+		this.columns = new int[size][];
+		this.values = new double[size][];
+		this.counts = new int[size];
+	}
+
+	/**
+	 * Sets the linear coefficient A[i][i].
+	 */
+	public void setDiagonal(int i, double value) {
+		diagonal[i] = value;
+	}
+
+	/**
+	 * Sets the coefficient A[i][j] of the upper half of the matrix. Zeros are
+	 * not stored.
+	 *
+	 * @param i
+	 *            the row.
+	 * @param j
+	 *            the column, greater than i and than the columns previously
+	 *            given for row i.
+	 * @param value
+	 *            the coefficient.
+	 */
+	public void setCoefficient(int i, int j, double value) {
+		if (value == 0.0)
+			return;
+		int n = counts[i];
+		if (j <= i || (n > 0 && j <= columns[i][n - 1]))
+			throw new IllegalArgumentException("Coefficient (" + i + ", " + j + ") given out of order");
+		if (columns[i] == null) {
+			columns[i] = new int[4];
+			values[i] = new double[4];
+		} else if (n == columns[i].length) {
+			int capacity = Math.min(2 * n, size);
+			columns[i] = Arrays.copyOf(columns[i], capacity);
+			values[i] = Arrays.copyOf(values[i], capacity);
+		}
+		columns[i][n] = j;
+		values[i][n] = value;
+		counts[i] = n + 1;
+		nonZeros++;
+		integral &= (value == Math.rint(value));
+		maxAbsValue = Math.max(maxAbsValue, Math.abs(value));
+	}
+
+	/**
+	 * @return how the dense couplings are stored.
+	 */
+	public CoefficientMode getCoefficientMode() {
+		return coefficientMode;
+	}
+
+	/**
+	 * Sets how the dense couplings are stored, overriding the
+	 * {@code qbf.coefficients} system property.
+	 *
+	 * @param coefficientMode
+	 *            the storage of the dense couplings.
+	 */
+	public void setCoefficientMode(CoefficientMode coefficientMode) {
+		this.coefficientMode = coefficientMode;
+	}
+
+	/**
+	 * @return the fraction of nonzero couplings among the n*(n-1)/2 pairs of
+	 *         distinct variables.
+	 */
+	public double getDensity() {
+		long pairs = (long) size * (size - 1) / 2;
+		return (pairs == 0) ? 1.0 : (double) nonZeros / pairs;
+	}
+
+	/**
+	 * Builds the matrix, with the storage that suits its density. The builder
+	 * must not be used afterwards.
+	 *
+	 * @return the matrix of couplings.
+	 */
+	public CouplingMatrix build() {
+		if (size <= MAX_DENSE_SIZE && getDensity() >= DENSITY_THRESHOLD)
+			return buildDense();
+		return buildSparse();
+	}
+
+	/**
+	 * Builds the matrix with the dense storage, whose type of coefficient is
+	 * given by the {@link #getCoefficientMode()}. The builder must not be used
+	 * afterwards.
+	 *
+	 * @return the matrix of couplings.
+	 */
+	public CouplingMatrix buildDense() {
+		if (size > MAX_DENSE_SIZE)
+			throw new IllegalStateException("Dimension too large for a dense matrix: " + size);
+		if (coefficientMode == CoefficientMode.FLOAT) {
+			float[] A = new float[size * size];
+			fill((k, value) -> A[k] = (float) value);
+			return new NarrowDenseCouplingMatrix.OfFloat(size, diagonal, A);
+		}
+		if (coefficientMode == CoefficientMode.AUTO && integral && maxAbsValue <= Short.MAX_VALUE) {
+			short[] A = new short[size * size];
+			fill((k, value) -> A[k] = (short) value);
+			return new NarrowDenseCouplingMatrix.OfShort(size, diagonal, A);
+		}
+		if (coefficientMode == CoefficientMode.AUTO && integral && maxAbsValue <= Integer.MAX_VALUE) {
+			int[] A = new int[size * size];
+			fill((k, value) -> A[k] = (int) value);
+			return new NarrowDenseCouplingMatrix.OfInt(size, diagonal, A);
+		}
+		double[] A = new double[size * size];
+		fill((k, value) -> A[k] = value);
+		return new DenseCouplingMatrix(size, diagonal, A);
+	}
+
+	/**
+	 * Stores a coefficient at an index of a dense array.
+	 */
+	private interface DenseStore {
+		void set(int k, double value);
+	}
+
+	/**
+	 * Copies the couplings into a dense array, row-major, each of them at
+	 * both (i, j) and (j, i), releasing the lists of each row once copied.
+	 */
+	private void fill(DenseStore A) {
+		for (int i = 0; i < size; i++) {
+			for (int k = 0; k < counts[i]; k++) {
+				int j = columns[i][k];
+				A.set(i * size + j, values[i][k]);
+				A.set(j * size + i, values[i][k]);
+			}
+			release(i);
+		}
+	}
+
+	/**
+	 * Frees the lists of row i once they were copied into the matrix.
+	 */
+	private void release(int i) {
+		columns[i] = null;
+		values[i] = null;
+	}
+
+	/**
+	 * Builds the matrix with the sparse storage. The builder must not be used
+	 * afterwards.
+	 *
+	 * @return the matrix of couplings.
+	 */
+	public SparseCouplingMatrix buildSparse() {
+		if (2 * nonZeros > Integer.MAX_VALUE - 8)
+			throw new IllegalStateException("Too many nonzeros for a sparse matrix: " + nonZeros);
+
+		// Each coupling goes into both of its rows
+		int[] rowStart = new int[size + 1];
+		for (int i = 0; i < size; i++) {
+			rowStart[i + 1] += counts[i];
+			for (int k = 0; k < counts[i]; k++) {
+				rowStart[columns[i][k] + 1]++;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			rowStart[i + 1] += rowStart[i];
+		}
+
+		// Going through the rows in order, the lower half of row i is complete
+		// when row i is reached, so the columns come out sorted
+		int[] csrColumns = new int[rowStart[size]];
+		double[] csrValues = new double[rowStart[size]];
+		int[] next = Arrays.copyOf(rowStart, size);
+		for (int i = 0; i < size; i++) {
+			for (int k = 0; k < counts[i]; k++) {
+				csrColumns[next[i]] = columns[i][k];
+				csrValues[next[i]++] = values[i][k];
+			}
+			for (int k = 0; k < counts[i]; k++) {
+				int j = columns[i][k];
+				csrColumns[next[j]] = i;
+				csrValues[next[j]++] = values[i][k];
+			}
+			columns[i] = null;
+			values[i] = null;
+		}
+		return new SparseCouplingMatrix(size, diagonal, rowStart, csrColumns, csrValues);
+	}
+
+}
@@ -0,0 +1,135 @@
+package problems.qbf.matrices;
+
+/**
+ * The strongest coupling partners of each variable: for every row i of a
+ * {@link CouplingMatrix}, the (at most) k columns j != i with the largest
+ * nonzero |A[i][j] + A[j][i]|, from the strongest to the weakest. They bound
+ * the exchange neighborhood to the pairs of variables whose interaction
+ * dominates the cost of an exchange.
+ *
+ * The lists are read-only once built, and stored back to back, row i in
+ * positions {@link #start(int)} to {@link #end(int)} of
+ * {@link #getPartners()}.
+ */
+public class CouplingPartners {
+
+	private final int k;
+
+	private final int[] rowStart;
+
+	private final int[] partners;
+
+	/**
+	 * Builds the partner lists of a matrix, in O(nnz * log k).
+	 *
+	 * @param A
+	 *            the matrix of couplings.
+	 * @param k
+	 *            the maximum number of partners of each variable.
+	 */
+	public CouplingPartners(CouplingMatrix A, int k) {
+		if (k < 1)
+			throw new IllegalArgumentException("The number of partners must be positive: " + k);
+		int size = A.getSize();
+		this.k = k;
+		this.rowStart = new int[size + 1];
+
+		int[][] rows = new int[size][];
+		int[] columns = new int[size];
+		int[] heap = new int[k];
+		double[] strength = new double[k];
+		for (int i = 0; i < size; i++) {
+			// A min-heap on the strength keeps the k strongest columns seen
+			int n = A.getCoupledVariables(i, columns), h = 0;
+			for (int c = 0; c < n; c++) {
+				double s = Math.abs(A.getCoupling(i, columns[c]));
+				if (h < k) {
+					heap[h] = columns[c];
+					strength[h] = s;
+					siftUp(heap, strength, h++);
+				} else if (s > strength[0]) {
+					heap[0] = columns[c];
+					strength[0] = s;
+					siftDown(heap, strength, 0, h);
+				}
+			}
+			// Popping the heap gives the partners from the weakest to the strongest
+			rows[i] = new int[h];
+			for (int r = h - 1; r >= 0; r--) {
+				rows[i][r] = heap[0];
+				heap[0] = heap[r];
+				strength[0] = strength[r];
+				siftDown(heap, strength, 0, r);
+			}
+			rowStart[i + 1] = rowStart[i] + h;
+		}
+
+		this.partners = new int[rowStart[size]];
+		for (int i = 0; i < size; i++) {
+			System.arraycopy(rows[i], 0, partners, rowStart[i], rows[i].length);
+		}
+	}
+
+	private static void siftUp(int[] heap, double[] strength, int h) {
+		while (h > 0) {
+			int parent = (h - 1) / 2;
+			if (strength[parent] <= strength[h])
+				break;
+			swap(heap, strength, parent, h);
+			h = parent;
+		}
+	}
+
+	private static void siftDown(int[] heap, double[] strength, int h, int n) {
+		while (true) {
+			int child = 2 * h + 1;
+			if (child >= n)
+				break;
+			if (child + 1 < n && strength[child + 1] < strength[child])
+				child++;
+			if (strength[h] <= strength[child])
+				break;
+			swap(heap, strength, h, child);
+			h = child;
+		}
+	}
+
+	private static void swap(int[] heap, double[] strength, int a, int b) {
+		int column = heap[a];
+		heap[a] = heap[b];
+		heap[b] = column;
+		double s = strength[a];
+		strength[a] = strength[b];
+		strength[b] = s;
+	}
+
+	/**
+	 * @return the maximum number of partners of each variable.
+	 */
+	public int getK() {
+		return k;
+	}
+
+	/**
+	 * @return the first position of the partners of variable i.
+	 */
+	public int start(int i) {
+		return rowStart[i];
+	}
+
+	/**
+	 * @return the position right after the last partner of variable i.
+	 */
+	public int end(int i) {
+		return rowStart[i + 1];
+	}
+
+	/**
+	 * @return the partners of every variable, back to back, which must not be
+	 *         modified.
+	 */
+	public int[] getPartners() {
+		return partners;
+	}
+
+}
@@ -0,0 +1,81 @@
+package problems.qbf.matrices;
+
+/**
+ * Couplings stored as a contiguous row-major array of n*n primitives. The
+ * diagonal cells are kept at zero, which keeps the row scans free of an
+ * {@code i != j} branch. This is the fastest storage when most couplings are
+ * nonzero, but it needs 8*n^2 bytes whatever the density. The row scans are
+ * run by the {@link DenseKernel} of the JVM, vectorized when possible.
+ */
+public class DenseCouplingMatrix extends CouplingMatrix {
+
+	/**
+	 * the couplings, A[i*n + j] = A[i][j] + A[j][i], with zeros on the
+	 * diagonal
+	 */
+	private final double[] A;
+
+	private static final DenseKernel KERNEL = DenseKernel.get();
+
+	/**
+	 * Constructor for the DenseCouplingMatrix class.
+	 *
+	 * @param size
+	 *            the dimension of the matrix.
+	 * @param diagonal
+	 *            the diagonal of the matrix.
+	 * @param A
+	 *            the couplings, row-major, with zeros on the diagonal.
+	 */
+	public DenseCouplingMatrix(int size, double[] diagonal, double[] A) {
+		super(size, diagonal);
+		this.A = A;
+		computeMaxAbsCouplings();
+	}
+
+	@Override
+	public double getCoupling(int i, int j) {
+		return A[i * size + j];
+	}
+
+	@Override
+	public double dotRow(int i, double[] x) {
+		return KERNEL.dot(A, i * size, x, 0, size);
+	}
+
+	@Override
+	public double dotUpperRow(int i, double[] x) {
+		return KERNEL.dot(A, i * size, x, i + 1, size);
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] y) {
+		KERNEL.addScaled(A, i * size, scale, y, size);
+	}
+
+	@Override
+	public int getCoupledVariables(int i, int[] columns) {
+		int n = 0, row = i * size;
+		for (int j = 0; j < size; j++) {
+			if (A[row + j] != 0.0)
+				columns[n++] = j;
+		}
+		return n;
+	}
+
+	@Override
+	public long getNonZeros() {
+		long n = 0;
+		for (double a : A) {
+			if (a != 0.0)
+				n++;
+		}
+		return n;
+	}
+
+	@Override
+	public long getHeapBytes() {
+		return super.getHeapBytes() + 8L * A.length;
+	}
+
+}
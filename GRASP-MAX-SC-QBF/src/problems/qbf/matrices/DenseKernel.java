@@ -0,0 +1,221 @@
+package problems.qbf.matrices;
+
+import java.util.logging.Logger;
+
+/**
+ * The row loops of the dense matrices: the dot product of a slice of a row
+ * with a vector, and the addition of a multiple of a row to a vector, for
+ * each type of coefficient the rows can be stored in. They are what the full
+ * evaluations, the bindings and the applied moves of a QBF spend their time
+ * in on the dense instances. The coefficients are widened to double, and
+ * the sums accumulated in double precision.
+ *
+ * The kernel in use is given by {@link #get()}. It is the SIMD kernel of the
+ * {@code src-vector} source root, written with the incubating Vector API,
+ * when that kernel was compiled and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, and the scalar kernel
+ * otherwise. Setting the system property {@code qbf.kernel} to
+ * {@code scalar} forces the scalar kernel. The kernel chosen is logged when
+ * it is loaded.
+ *
+ * On the bundled instances, whose coefficients are integers, every kernel
+ * gives the same results, since the sums are then exact whatever their
+ * order.
+ */
+public abstract class DenseKernel {
+
+	/**
+	 * the class of the SIMD kernel, looked up by name so that this source
+	 * root builds without the incubator module
+	 */
+	private static final String VECTOR_KERNEL = "problems.qbf.matrices.VectorDenseKernel";
+
+	/**
+	 * the scalar kernel, which every JVM can run
+	 */
+	public static final DenseKernel SCALAR = new DenseKernel() {
+
+		@Override
+		public double dot(double[] a, int offset, double[] x, int from, int to) {
+			double sum = 0.0;
+			for (int j = from; j < to; j++) {
+				sum += x[j] * a[offset + j];
+			}
+			return sum;
+		}
+
+		@Override
+		public void addScaled(double[] a, int offset, double scale, double[] y, int n) {
+			for (int j = 0; j < n; j++) {
+				y[j] += scale * a[offset + j];
+			}
+		}
+
+		@Override
+		public double dot(short[] a, int offset, double[] x, int from, int to) {
+			double sum = 0.0;
+			for (int j = from; j < to; j++) {
+				sum += x[j] * a[offset + j];
+			}
+			return sum;
+		}
+
+		@Override
+		public void addScaled(short[] a, int offset, double scale, double[] y, int n) {
+			for (int j = 0; j < n; j++) {
+				y[j] += scale * a[offset + j];
+			}
+		}
+
+		@Override
+		public double dot(int[] a, int offset, double[] x, int from, int to) {
+			double sum = 0.0;
+			for (int j = from; j < to; j++) {
+				sum += x[j] * a[offset + j];
+			}
+			return sum;
+		}
+
+		@Override
+		public void addScaled(int[] a, int offset, double scale, double[] y, int n) {
+			for (int j = 0; j < n; j++) {
+				y[j] += scale * a[offset + j];
+			}
+		}
+
+		@Override
+		public double dot(float[] a, int offset, double[] x, int from, int to) {
+			double sum = 0.0;
+			for (int j = from; j < to; j++) {
+				sum += x[j] * a[offset + j];
+			}
+			return sum;
+		}
+
+		@Override
+		public void addScaled(float[] a, int offset, double scale, double[] y, int n) {
+			for (int j = 0; j < n; j++) {
+				y[j] += scale * a[offset + j];
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "scalar";
+		}
+
+	};
+
+	/**
+	 * Computes \sum{j in [from, to)}{a[offset + j]*x[j]}.
+	 *
+	 * @param a
+	 *            the array holding the row.
+	 * @param offset
+	 *            the position of the row in a.
+	 * @param x
+	 *            the vector.
+	 * @param from
+	 *            the first column, inclusive.
+	 * @param to
+	 *            the last column, exclusive.
+	 * @return the dot product of the slice of the row.
+	 */
+	public abstract double dot(double[] a, int offset, double[] x, int from, int to);
+
+	/**
+	 * Computes y[j] += scale*a[offset + j] for every j in [0, n).
+	 *
+	 * @param a
+	 *            the array holding the row.
+	 * @param offset
+	 *            the position of the row in a.
+	 * @param scale
+	 *            the multiplier of the row.
+	 * @param y
+	 *            the vector being updated.
+	 * @param n
+	 *            the length of the row.
+	 */
+	public abstract void addScaled(double[] a, int offset, double scale, double[] y, int n);
+
+	/**
+	 * Same as {@link #dot(double[], int, double[], int, int)}, over a row of
+	 * 16-bit coefficients.
+	 */
+	public abstract double dot(short[] a, int offset, double[] x, int from, int to);
+
+	/**
+	 * Same as {@link #addScaled(double[], int, double, double[], int)}, with
+	 * a row of 16-bit coefficients.
+	 */
+	public abstract void addScaled(short[] a, int offset, double scale, double[] y, int n);
+
+	/**
+	 * Same as {@link #dot(double[], int, double[], int, int)}, over a row of
+	 * 32-bit coefficients.
+	 */
+	public abstract double dot(int[] a, int offset, double[] x, int from, int to);
+
+	/**
+	 * Same as {@link #addScaled(double[], int, double, double[], int)}, with
+	 * a row of 32-bit coefficients.
+	 */
+	public abstract void addScaled(int[] a, int offset, double scale, double[] y, int n);
+
+	/**
+	 * Same as {@link #dot(double[], int, double[], int, int)}, over a row of
+	 * single-precision coefficients.
+	 */
+	public abstract double dot(float[] a, int offset, double[] x, int from, int to);
+
+	/**
+	 * Same as {@link #addScaled(double[], int, double, double[], int)}, with
+	 * a row of single-precision coefficients.
+	 */
+	public abstract void addScaled(float[] a, int offset, double scale, double[] y, int n);
+
+	/**
+	 * @return a short name of the kernel, to tell in the logs and benchmarks
+	 *         which one ran.
+	 */
+	public abstract String getName();
+
+	/**
+	 * @return the kernel used by the dense matrices of this JVM.
+	 */
+	public static DenseKernel get() {
+		return Holder.KERNEL;
+	}
+
+	/**
+	 * Loads the SIMD kernel if possible, and logs the kernel chosen. A
+	 * missing class means the {@code src-vector} root was not compiled, and a
+	 * linkage error means the incubator module is not available at runtime;
+	 * either way, the scalar kernel is used.
+	 */
+	private static DenseKernel load() {
+		Logger logger = Logger.getLogger(DenseKernel.class.getName());
+		if ("scalar".equals(System.getProperty("qbf.kernel"))) {
+			logger.info("Dense kernel: scalar, as set by qbf.kernel");
+			return SCALAR;
+		}
+		try {
+			DenseKernel kernel = (DenseKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+			logger.info("Dense kernel: " + kernel.getName());
+			return kernel;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			logger.info("Dense kernel: scalar, since the SIMD kernel could not be loaded: " + e);
+			return SCALAR;
+		}
+	}
+
+	/**
+	 * Holder of the kernel, so that it is loaded on first use, and read from
+	 * a static final field that the JIT can inline through.
+	 */
+	private static class Holder {
+		static final DenseKernel KERNEL = load();
+	}
+
+}
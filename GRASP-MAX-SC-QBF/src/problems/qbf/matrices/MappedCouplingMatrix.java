@@ -0,0 +1,173 @@
+package problems.qbf.matrices;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Couplings read straight from the upper triangular coefficient block of a
+ * binary instance, through a (typically memory-mapped) buffer, so that the
+ * coefficients never get copied onto the heap. Row i of the block holds
+ * A[i][i] .. A[i][n-1], packed one after the other, as little-endian doubles
+ * or floats. Since the input matrix is upper triangular, the coupling of i
+ * and j is the block entry of (min(i, j), max(i, j)).
+ *
+ * The lower half of a row is read down a column of the block, which is
+ * slower than the contiguous scans of a {@link DenseCouplingMatrix}; this
+ * backend trades some speed for a near-zero heap footprint and load time.
+ *
+ * A buffer holds at most 2 GB, so the block is given as a sequence of
+ * chunks of {@code 2^CHUNK_SHIFT} coefficients each, the last one possibly
+ * shorter, and coefficients are addressed by long offsets into it.
+ */
+public class MappedCouplingMatrix extends CouplingMatrix {
+
+	/**
+	 * log2 of the number of coefficients in each chunk of the block, i.e.,
+	 * 1 GB of doubles or 512 MB of floats
+	 */
+	public static final int CHUNK_SHIFT = 27;
+
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	/**
+	 * the chunks of the block as doubles, or null if it holds floats
+	 */
+	private final DoubleBuffer[] doubles;
+
+	/**
+	 * the chunks of the block as floats, or null if it holds doubles
+	 */
+	private final FloatBuffer[] floats;
+
+	/**
+	 * where each row starts in the block, in coefficients
+	 */
+	private final long[] rowStart;
+
+	/**
+	 * Constructor for the MappedCouplingMatrix class.
+	 *
+	 * @param size
+	 *            the dimension of the matrix.
+	 * @param chunks
+	 *            the coefficient block, from its first byte to its last one,
+	 *            in chunks of {@code 2^CHUNK_SHIFT} coefficients but the last.
+	 * @param bytesPerCoefficient
+	 *            8 if the block holds doubles, 4 if it holds floats.
+	 */
+	public MappedCouplingMatrix(int size, ByteBuffer[] chunks, int bytesPerCoefficient) {
+		super(size, new double[size]);
+		if (bytesPerCoefficient == 8) {
+			doubles = new DoubleBuffer[chunks.length];
+			floats = null;
+		} else if (bytesPerCoefficient == 4) {
+			doubles = null;
+			floats = new FloatBuffer[chunks.length];
+		} else {
+			throw new IllegalArgumentException("Unsupported coefficient size: " + bytesPerCoefficient);
+		}
+
+		long capacity = 0;
+		for (int c = 0; c < chunks.length; c++) {
+			ByteBuffer chunk = chunks[c].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			int coefficients = chunk.remaining() / bytesPerCoefficient;
+			if (c < chunks.length - 1 && coefficients != 1 << CHUNK_SHIFT)
+				throw new IllegalArgumentException("Chunk " + c + " holds " + coefficients + " coefficients, " + (1 << CHUNK_SHIFT) + " expected");
+			if (doubles != null)
+				doubles[c] = chunk.asDoubleBuffer();
+			else
+				floats[c] = chunk.asFloatBuffer();
+			capacity += coefficients;
+		}
+
+		rowStart = new long[size];
+		long start = 0;
+		for (int i = 0; i < size; i++) {
+			rowStart[i] = start;
+			start += size - i;
+		}
+		if (start > capacity)
+			throw new IllegalArgumentException("Coefficient block too short: " + capacity + " coefficients, " + start + " expected");
+
+		// The diagonal is read on every contribution, so it is worth a copy
+		for (int i = 0; i < size; i++) {
+			diagonal[i] = coefficient(rowStart[i]);
+		}
+		computeMaxAbsCouplings();
+	}
+
+	private double coefficient(long k) {
+		int chunk = (int) (k >>> CHUNK_SHIFT), offset = (int) (k & CHUNK_MASK);
+		return (doubles != null) ? doubles[chunk].get(offset) : floats[chunk].get(offset);
+	}
+
+	@Override
+	public double getCoupling(int i, int j) {
+		return (i < j) ? coefficient(rowStart[i] + j - i) : coefficient(rowStart[j] + i - j);
+	}
+
+	@Override
+	public double dotRow(int i, double[] x) {
+		double sum = 0.0;
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * coefficient(rowStart[j] + i - j);
+		}
+		return sum + dotUpperRow(i, x);
+	}
+
+	@Override
+	public double dotUpperRow(int i, double[] x) {
+		double sum = 0.0;
+		long row = rowStart[i] - i;
+		for (int j = i + 1; j < size; j++) {
+			sum += x[j] * coefficient(row + j);
+		}
+		return sum;
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] y) {
+		for (int j = 0; j < i; j++) {
+			y[j] += scale * coefficient(rowStart[j] + i - j);
+		}
+		long row = rowStart[i] - i;
+		for (int j = i + 1; j < size; j++) {
+			y[j] += scale * coefficient(row + j);
+		}
+	}
+
+	@Override
+	public int getCoupledVariables(int i, int[] columns) {
+		int n = 0;
+		for (int j = 0; j < size; j++) {
+			if (j != i && getCoupling(i, j) != 0.0)
+				columns[n++] = j;
+		}
+		return n;
+	}
+
+	@Override
+	public long getNonZeros() {
+		long n = 0;
+		for (int i = 0; i < size; i++) {
+			long row = rowStart[i] - i;
+			for (int j = i + 1; j < size; j++) {
+				if (coefficient(row + j) != 0.0)
+					n += 2;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * {@inheritDoc} The coefficients themselves are not on the heap, but in
+	 * the mapping.
+	 */
+	@Override
+	public long getHeapBytes() {
+		return super.getHeapBytes() + 8L * rowStart.length;
+	}
+
+}
@@ -0,0 +1,254 @@
+package problems.qbf.matrices;
+
+/**
+ * Couplings stored as in a {@link DenseCouplingMatrix}, but in a narrower
+ * type than double, which shrinks the array a row scan is bound by on the
+ * large instances. The subclasses only differ by the type of their array:
+ * <ul>
+ * <li>{@link OfShort}, 16-bit integers, for the matrices whose couplings are
+ * all integers within the range of a short, a quarter of the double
+ * array;</li>
+ * <li>{@link OfInt}, 32-bit integers, for the integer couplings out of that
+ * range, half of the double array;</li>
+ * <li>{@link OfFloat}, single precision, which halves the array for the
+ * instances with real-valued couplings. The couplings are rounded to the
+ * nearest float when stored, so this storage is only used on request, see
+ * {@link CouplingMatrixBuilder.CoefficientMode#FLOAT}.</li>
+ * </ul>
+ * The row loops are those of the {@link DenseKernel}, which widens the
+ * couplings to double and accumulates in double precision. Multiplied by the
+ * integer vectors of a QBF, the sums of integer couplings stay integers below
+ * 2^53 in magnitude up to far larger instances than fit in memory, so they
+ * are exact, and no floating drift builds up in the incremental costs.
+ */
+public abstract class NarrowDenseCouplingMatrix extends CouplingMatrix {
+
+	private static final DenseKernel KERNEL = DenseKernel.get();
+
+	private NarrowDenseCouplingMatrix(int size, double[] diagonal) {
+		super(size, diagonal);
+	}
+
+	/**
+	 * @return the coupling stored at index k of the array, widened to double.
+	 */
+	abstract double get(int k);
+
+	/**
+	 * @return the length of the array.
+	 */
+	abstract int length();
+
+	/**
+	 * @return the number of bytes of each coupling in the array.
+	 */
+	abstract int bytesPerCoupling();
+
+	@Override
+	public double getCoupling(int i, int j) {
+		return get(i * size + j);
+	}
+
+	@Override
+	public int getCoupledVariables(int i, int[] columns) {
+		int n = 0, row = i * size;
+		for (int j = 0; j < size; j++) {
+			if (get(row + j) != 0.0)
+				columns[n++] = j;
+		}
+		return n;
+	}
+
+	@Override
+	public long getNonZeros() {
+		long n = 0;
+		for (int k = 0, length = length(); k < length; k++) {
+			if (get(k) != 0.0)
+				n++;
+		}
+		return n;
+	}
+
+	@Override
+	public long getHeapBytes() {
+		return super.getHeapBytes() + (long) bytesPerCoupling() * length();
+	}
+
+	/**
+	 * Couplings stored as 16-bit integers.
+	 */
+	public static class OfShort extends NarrowDenseCouplingMatrix {
+
+		/**
+		 * the couplings, A[i*n + j] = A[i][j] + A[j][i], with zeros on the
+		 * diagonal
+		 */
+		private final short[] A;
+
+		/**
+		 * Constructor for the OfShort class.
+		 *
+		 * @param size
+		 *            the dimension of the matrix.
+		 * @param diagonal
+		 *            the diagonal of the matrix.
+		 * @param A
+		 *            the couplings, row-major, with zeros on the diagonal.
+		 */
+		public OfShort(int size, double[] diagonal, short[] A) {
+			super(size, diagonal);
+			this.A = A;
+			computeMaxAbsCouplings();
+		}
+
+		@Override
+		double get(int k) {
+			return A[k];
+		}
+
+		@Override
+		int length() {
+			return A.length;
+		}
+
+		@Override
+		int bytesPerCoupling() {
+			return Short.BYTES;
+		}
+
+		@Override
+		public double dotRow(int i, double[] x) {
+			return KERNEL.dot(A, i * size, x, 0, size);
+		}
+
+		@Override
+		public double dotUpperRow(int i, double[] x) {
+			return KERNEL.dot(A, i * size, x, i + 1, size);
+		}
+
+		@Override
+		public void addRow(int i, double scale, double[] y) {
+			KERNEL.addScaled(A, i * size, scale, y, size);
+		}
+
+	}
+
+	/**
+	 * Couplings stored as 32-bit integers.
+	 */
+	public static class OfInt extends NarrowDenseCouplingMatrix {
+
+		/**
+		 * the couplings, A[i*n + j] = A[i][j] + A[j][i], with zeros on the
+		 * diagonal
+		 */
+		private final int[] A;
+
+		/**
+		 * Constructor for the OfInt class.
+		 *
+		 * @param size
+		 *            the dimension of the matrix.
+		 * @param diagonal
+		 *            the diagonal of the matrix.
+		 * @param A
+		 *            the couplings, row-major, with zeros on the diagonal.
+		 */
+		public OfInt(int size, double[] diagonal, int[] A) {
+			super(size, diagonal);
+			this.A = A;
+			computeMaxAbsCouplings();
+		}
+
+		@Override
+		double get(int k) {
+			return A[k];
+		}
+
+		@Override
+		int length() {
+			return A.length;
+		}
+
+		@Override
+		int bytesPerCoupling() {
+			return Integer.BYTES;
+		}
+
+		@Override
+		public double dotRow(int i, double[] x) {
+			return KERNEL.dot(A, i * size, x, 0, size);
+		}
+
+		@Override
+		public double dotUpperRow(int i, double[] x) {
+			return KERNEL.dot(A, i * size, x, i + 1, size);
+		}
+
+		@Override
+		public void addRow(int i, double scale, double[] y) {
+			KERNEL.addScaled(A, i * size, scale, y, size);
+		}
+
+	}
+
+	/**
+	 * Couplings stored in single precision.
+	 */
+	public static class OfFloat extends NarrowDenseCouplingMatrix {
+
+		/**
+		 * the couplings, A[i*n + j] = A[i][j] + A[j][i], with zeros on the
+		 * diagonal
+		 */
+		private final float[] A;
+
+		/**
+		 * Constructor for the OfFloat class.
+		 *
+		 * @param size
+		 *            the dimension of the matrix.
+		 * @param diagonal
+		 *            the diagonal of the matrix.
+		 * @param A
+		 *            the couplings, row-major, with zeros on the diagonal.
+		 */
+		public OfFloat(int size, double[] diagonal, float[] A) {
+			super(size, diagonal);
+			this.A = A;
+			computeMaxAbsCouplings();
+		}
+
+		@Override
+		double get(int k) {
+			return A[k];
+		}
+
+		@Override
+		int length() {
+			return A.length;
+		}
+
+		@Override
+		int bytesPerCoupling() {
+			return Float.BYTES;
+		}
+
+		@Override
+		public double dotRow(int i, double[] x) {
+			return KERNEL.dot(A, i * size, x, 0, size);
+		}
+
+		@Override
+		public double dotUpperRow(int i, double[] x) {
+			return KERNEL.dot(A, i * size, x, i + 1, size);
+		}
+
+		@Override
+		public void addRow(int i, double scale, double[] y) {
+			KERNEL.addScaled(A, i * size, scale, y, size);
+		}
+
+	}
+
+}
@@ -0,0 +1,104 @@
+package problems.qbf.matrices;
+
+import java.util.Arrays;
+
+/**
+ * Couplings stored in compressed sparse row (CSR) form: the nonzero
+ * couplings of row i are {@code values[rowStart[i] .. rowStart[i+1])}, in
+ * ascending order of their columns, {@code columns[...]}. Each coupling is
+ * stored in both of its rows, so that every row scan only touches the
+ * nonzeros of that row. It needs about 12 bytes per nonzero coupling, which
+ * makes it the only option for large instances of low density.
+ */
+public class SparseCouplingMatrix extends CouplingMatrix {
+
+	/**
+	 * where each row starts in {@link #columns} and {@link #values}, with
+	 * rowStart[n] being the number of nonzeros
+	 */
+	private final int[] rowStart;
+
+	/**
+	 * the column of each nonzero coupling
+	 */
+	private final int[] columns;
+
+	/**
+	 * the value of each nonzero coupling
+	 */
+	private final double[] values;
+
+	/**
+	 * Constructor for the SparseCouplingMatrix class.
+	 *
+	 * @param size
+	 *            the dimension of the matrix.
+	 * @param diagonal
+	 *            the diagonal of the matrix.
+	 * @param rowStart
+	 *            where each row starts, of dimension size + 1.
+	 * @param columns
+	 *            the column of each nonzero, ascending within each row.
+	 * @param values
+	 *            the value of each nonzero.
+	 */
+	public SparseCouplingMatrix(int size, double[] diagonal, int[] rowStart, int[] columns, double[] values) {
+		super(size, diagonal);
+		this.rowStart = rowStart;
+		this.columns = columns;
+		this.values = values;
+		computeMaxAbsCouplings();
+	}
+
+	@Override
+	public double getCoupling(int i, int j) {
+		int k = Arrays.binarySearch(columns, rowStart[i], rowStart[i + 1], j);
+		return (k >= 0) ? values[k] : 0.0;
+	}
+
+	@Override
+	public double dotRow(int i, double[] x) {
+		double sum = 0.0;
+		for (int k = rowStart[i], end = rowStart[i + 1]; k < end; k++) {
+			sum += x[columns[k]] * values[k];
+		}
+		return sum;
+	}
+
+	@Override
+	public double dotUpperRow(int i, double[] x) {
+		double sum = 0.0;
+		int end = rowStart[i + 1];
+		// The columns are sorted, so the upper half is a suffix of the row
+		int k = Arrays.binarySearch(columns, rowStart[i], end, i);
+		for (k = (k >= 0) ? k + 1 : -k - 1; k < end; k++) {
+			sum += x[columns[k]] * values[k];
+		}
+		return sum;
+	}
+
+	@Override
+	public void addRow(int i, double scale, double[] y) {
+		for (int k = rowStart[i], end = rowStart[i + 1]; k < end; k++) {
+			y[columns[k]] += scale * values[k];
+		}
+	}
+
+	@Override
+	public int getCoupledVariables(int i, int[] columns) {
+		int n = rowStart[i + 1] - rowStart[i];
+		System.arraycopy(this.columns, rowStart[i], columns, 0, n);
+		return n;
+	}
+
+	@Override
+	public long getNonZeros() {
+		return rowStart[size];
+	}
+
+	@Override
+	public long getHeapBytes() {
+		return super.getHeapBytes() + 4L * rowStart.length + 12L * columns.length;
+	}
+
+}
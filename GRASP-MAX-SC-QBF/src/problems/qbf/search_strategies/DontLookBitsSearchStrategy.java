@@ -0,0 +1,269 @@
+package problems.qbf.search_strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
+import problems.qbf.QBF;
+import solutions.Solution;
+
+/**
+ * First-improving local search with don't-look bits, for the QBF problems.
+ * The moves are grouped by the variable they are anchored at: the insertion
+ * of a candidate along with its exchanges against the elements of the
+ * solution, or the removal of an element of the solution. Variables are
+ * scanned circularly, starting right after the variable of the last move,
+ * instead of from the start of the candidate list, and a variable whose
+ * moves were found not to improve gets its don't-look bit set, so that it is
+ * skipped by the following scans.
+ *
+ * A bit is cleared when the moves of its variable may have changed: when a
+ * moved element is coupled with it (its entry of A is not zero), or when it
+ * becomes a candidate again. Since an exchange also depends on the element
+ * leaving the solution, the bits can hide an improving move, so before the
+ * search stops, the variables whose bits were set on a previous step are
+ * checked again. The search thus always ends at a local optimum of the whole
+ * neighborhood.
+ *
+ * The exchanges of a candidate are skipped altogether when even the best
+ * removal, combined with the insertion of the candidate and its largest
+ * coupling, cannot improve the solution. On the dense instances, where a
+ * move touches the bits of almost every variable, this bound is what saves
+ * most of the exchange evaluations.
+ */
+public class DontLookBitsSearchStrategy extends AbstractSearchStrategy<Integer> {
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see problems.qbf.search_strategies.AbstractSearchStrategy#localSearch(problems.IncrementalEvaluator,
+	 * solutions.Solution, metaheuristics.grasp.AbstractGRASP)
+	 */
+	@Override
+	public Solution<Integer> localSearch(
+		IncrementalEvaluator<Integer> ObjFunction,
+		Solution<Integer> solution,
+		AbstractGRASP<Integer> solver
+	) {
+		// The state of the search is kept per call, so that the strategy can
+		// be shared by concurrent solvers.
+		Descent descent = new Descent((QBF) ObjFunction, solution);
+		int start = 0;
+		long checkedAt = 0;
+
+		ObjFunction.bind(solution);
+		while (true) {
+			solver.updateCL();
+			descent.refresh(solver.getCLView());
+
+			int moved = descent.scan(start, false);
+			if (moved < 0)
+				moved = descent.scan(start, true);
+			if (moved < 0)
+				break;
+			start = (moved + 1) % descent.size;
+			// Stop early, at the current solution, once the deadline expires
+			long evaluations = descent.insertions + descent.removals + descent.exchanges;
+			if (evaluations - checkedAt >= Deadline.CHECK_PERIOD) {
+				checkedAt = evaluations;
+				if (solver.getDeadline().isExpired())
+					break;
+			}
+		}
+
+		solver.countEvaluations(descent.insertions, descent.removals, descent.exchanges);
+		solver.countFullEvaluations(1);
+		solver.countMoves(descent.moves);
+		return solution;
+	}
+
+	/**
+	 * The state of one descent.
+	 */
+	private static class Descent {
+
+		final QBF qbf;
+
+		final Solution<Integer> solution;
+
+		final int size;
+
+		/**
+		 * the don't-look bit of each variable
+		 */
+		final boolean[] dontLook;
+
+		/**
+		 * the number of moves applied when each variable was last found
+		 * without improving moves
+		 */
+		final int[] checkedAt;
+
+		/**
+		 * the number of moves applied so far
+		 */
+		int moves;
+
+		/**
+		 * the number of deltas of each type evaluated so far
+		 */
+		long insertions, removals, exchanges;
+
+		/**
+		 * whether each variable is currently a candidate, and whether it was
+		 * one on the previous step
+		 */
+		boolean[] inCL, wasInCL;
+
+		/**
+		 * whether each variable is currently in the solution
+		 */
+		final boolean[] inSol;
+
+		/**
+		 * buffer for the variables coupled with a moved one
+		 */
+		final int[] coupled;
+
+		Descent(QBF qbf, Solution<Integer> solution) {
+			this.qbf = qbf;
+			this.solution = solution;
+			this.size = qbf.size;
+			dontLook = new boolean[size];
+			checkedAt = new int[size];
+			inCL = new boolean[size];
+			wasInCL = new boolean[size];
+			inSol = new boolean[size];
+			coupled = new int[size];
+		}
+
+		/**
+		 * Updates the membership of the variables after the candidate list
+		 * was updated, clearing the bits of the new candidates.
+		 */
+		void refresh(ArrayList<Integer> cl) {
+			boolean[] swap = wasInCL;
+			wasInCL = inCL;
+			inCL = swap;
+			Arrays.fill(inCL, false);
+			for (int k = 0; k < cl.size(); k++) {
+				int v = cl.get(k);
+				inCL[v] = true;
+				if (!wasInCL[v])
+					dontLook[v] = false;
+			}
+			Arrays.fill(inSol, false);
+			for (int l = 0; l < solution.size(); l++) {
+				inSol[solution.get(l)] = true;
+			}
+		}
+
+		/**
+		 * Tells whether a variable is skipped by a scan.
+		 */
+		boolean skipped(int v, boolean verifying) {
+			// The verification only looks at the bits that were set on an
+			// earlier step, the others were just checked
+			if (verifying)
+				return !dontLook[v] || checkedAt[v] == moves;
+			return dontLook[v];
+		}
+
+		/**
+		 * Records that a variable has no improving move.
+		 */
+		void checked(int v) {
+			dontLook[v] = true;
+			checkedAt[v] = moves;
+		}
+
+		/**
+		 * Scans the variables circularly until the first improving move,
+		 * which is applied. As in {@link FirstImprovingSearchStrategy}, the
+		 * insertions and removals are tried before the exchanges.
+		 *
+		 * @param start
+		 *            the variable the scan starts at.
+		 * @param verifying
+		 *            false to scan the variables whose bit is not set, true
+		 *            to check again those whose bit was set on an earlier
+		 *            step.
+		 * @return the variable the applied move is anchored at, or -1 if no
+		 *         improving move was found.
+		 */
+		int scan(int start, boolean verifying) {
+			// Evaluate insertions and removals
+			double minRemovalDelta = Double.POSITIVE_INFINITY;
+			for (int t = 0; t < size; t++) {
+				int v = start + t < size ? start + t : start + t - size;
+				if (inSol[v]) {
+					// The best removal is needed to bound the exchanges
+					double deltaCost = qbf.evaluateRemovalDelta(qbf.getElement(v));
+					removals++;
+					minRemovalDelta = Math.min(minRemovalDelta, deltaCost);
+					if (skipped(v, verifying))
+						continue;
+					if (deltaCost < -Double.MIN_VALUE) {
+						qbf.applyRemoval(qbf.getElement(v));
+						touched(v);
+						return v;
+					}
+					// A removal is the only move anchored at an element of the solution
+					checked(v);
+				} else if (skipped(v, verifying)) {
+					continue;
+				} else if (inCL[v]) {
+					Integer candIn = qbf.getElement(v);
+					insertions++;
+					if (qbf.evaluateInsertionDelta(candIn) < -Double.MIN_VALUE) {
+						qbf.applyInsertion(candIn);
+						touched(v);
+						return v;
+					}
+				} else {
+					checked(v);
+				}
+			}
+			// Evaluate exchanges, anchored at the candidate entering the solution
+			for (int t = 0; t < size; t++) {
+				int v = start + t < size ? start + t : start + t - size;
+				if (!inCL[v] || skipped(v, verifying))
+					continue;
+
+				Integer candIn = qbf.getElement(v);
+				insertions++;
+				if (qbf.evaluateInsertionDelta(candIn) + minRemovalDelta - qbf.getMaxCoupling(v) < 0) {
+					for (int l = 0; l < solution.size(); l++) {
+						Integer candOut = solution.get(l);
+						exchanges++;
+						if (qbf.evaluateExchangeDelta(candIn, candOut) < -Double.MIN_VALUE) {
+							qbf.applyExchange(candIn, candOut);
+							touched(v);
+							touched(candOut);
+							return v;
+						}
+					}
+				}
+				checked(v);
+			}
+			return -1;
+		}
+
+		/**
+		 * Clears the bits of a moved variable and of every variable coupled
+		 * with it, whose contributions changed with the move.
+		 */
+		void touched(int m) {
+			moves++;
+			int n = qbf.getCoupledVariables(m, coupled);
+			for (int k = 0; k < n; k++) {
+				dontLook[coupled[k]] = false;
+			}
+			dontLook[m] = false;
+		}
+
+	}
+
+}
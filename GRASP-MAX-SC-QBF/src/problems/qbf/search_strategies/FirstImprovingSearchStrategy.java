@@ -3,7 +3,8 @@ package problems.qbf.search_strategies;
 import java.util.ArrayList;
 
 import metaheuristics.grasp.AbstractGRASP;
-import problems.Evaluator;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
 import solutions.Solution;
 
 public class FirstImprovingSearchStrategy<E> extends AbstractSearchStrategy<E> {
@@ -15,71 +16,102 @@ public class FirstImprovingSearchStrategy<E> extends AbstractSearchStrategy<E> {
      */
     @Override
     public Solution<E> localSearch(
-        Evaluator<E> ObjFunction,
+        IncrementalEvaluator<E> ObjFunction,
         Solution<E> solution,
         AbstractGRASP<E> solver
     ) {
-        Double deltaCost;
+        double deltaCost;
         boolean improvementFound;
         E bestCandIn = null, bestCandOut = null;
+        long insertions = 0, removals = 0, exchanges = 0, moves = 0;
+        // The deadline is checked once every CHECK_PERIOD evaluations, inside
+        // the scan, and a step cut short by it applies no move
+        Deadline deadline = solver.getDeadline();
+        long untilCheck = Deadline.CHECK_PERIOD;
 
+        // Indexed loops over the lists, so that the descent allocates no iterators
+        ObjFunction.bind(solution);
+        descent:
         do {
             improvementFound = false;
             solver.updateCL();
-            ArrayList<E> cl = solver.getCL();
+            ArrayList<E> cl = solver.getCLView();
+            int clSize = cl.size(), solSize = solution.size();
                 
             // Evaluate insertions
-            for (E candIn : cl) {
-                deltaCost = ObjFunction.evaluateInsertionCost(candIn, solution);
+            for (int k = 0; k < clSize; k++) {
+                E candIn = cl.get(k);
+                deltaCost = ObjFunction.evaluateInsertionDelta(candIn);
+                insertions++;
                 if (deltaCost < -Double.MIN_VALUE) {
                     bestCandIn = candIn;
                     bestCandOut = null;
                     improvementFound = true;
                     break;
                 }
+                if (--untilCheck == 0) {
+                    untilCheck = Deadline.CHECK_PERIOD;
+                    if (deadline.isExpired())
+                        break descent;
+                }
             }
             // Evaluate removals
             if (!improvementFound) {
-                for (E candOut : solution) {
-                    deltaCost = ObjFunction.evaluateRemovalCost(candOut, solution);
+                for (int l = 0; l < solSize; l++) {
+                    E candOut = solution.get(l);
+                    deltaCost = ObjFunction.evaluateRemovalDelta(candOut);
+                    removals++;
                     if (deltaCost < -Double.MIN_VALUE) {
                         bestCandIn = null;
                         bestCandOut = candOut;
                         improvementFound = true;
                         break;
                     }
+                    if (--untilCheck == 0) {
+                        untilCheck = Deadline.CHECK_PERIOD;
+                        if (deadline.isExpired())
+                            break descent;
+                    }
                 }
             }
             // Evaluate exchanges
             if (!improvementFound) {
-                for (E candIn : cl) {
-                    for (E candOut : solution) {
-                        deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, solution);
+                for (int k = 0; k < clSize && !improvementFound; k++) {
+                    E candIn = cl.get(k);
+                    for (int l = 0; l < solSize; l++) {
+                        E candOut = solution.get(l);
+                        deltaCost = ObjFunction.evaluateExchangeDelta(candIn, candOut);
+                        exchanges++;
                         if (deltaCost < -Double.MIN_VALUE) {
                             bestCandIn = candIn;
                             bestCandOut = candOut;
                             improvementFound = true;
                             break;
                         }
-                    }
-                    if (improvementFound) {
-                        break;
+                        if (--untilCheck == 0) {
+                            untilCheck = Deadline.CHECK_PERIOD;
+                            if (deadline.isExpired())
+                                break descent;
+                        }
                     }
                 }
             }
             // Implement the first move that reduces the solution cost.
             if (improvementFound) {
-                if (bestCandOut != null) {
-                    solution.remove(bestCandOut);
-                    cl.add(bestCandOut);
-                }
-                if (bestCandIn != null) {
-                    solution.add(bestCandIn);
-                    cl.remove(bestCandIn);
+                moves++;
+                if (bestCandIn != null && bestCandOut != null) {
+                    ObjFunction.applyExchange(bestCandIn, bestCandOut);
+                } else if (bestCandOut != null) {
+                    ObjFunction.applyRemoval(bestCandOut);
+                } else {
+                    ObjFunction.applyInsertion(bestCandIn);
                 }
-                ObjFunction.evaluate(solution);
             }
         } while (improvementFound);
+
+        solver.countEvaluations(insertions, removals, exchanges);
+        solver.countFullEvaluations(1);
+        solver.countMoves(moves);
         return solution;
     }
 }
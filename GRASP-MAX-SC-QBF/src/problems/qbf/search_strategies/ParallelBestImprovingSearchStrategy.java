@@ -0,0 +1,273 @@
+package problems.qbf.search_strategies;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
+import solutions.Solution;
+
+/**
+ * Best-improving local search whose neighborhood scan is split over a
+ * {@link ForkJoinPool}. The insertion, removal and exchange moves of each
+ * step are numbered in the order in which {@link BestImprovingSearchStrategy}
+ * visits them, and that range of move numbers is recursively split into
+ * chunks. Each chunk keeps its own best move, and chunks are merged by
+ * lowest cost variation, ties going to the lowest move number. The chosen
+ * move is thus the same as in the sequential strategy, whatever the number
+ * of threads. The moves are numbered with longs, since |CL|*|sol| passes
+ * the range of an int on the largest instances.
+ *
+ * The chunks only call the delta methods of the bound evaluator, which do
+ * not modify it, and read the candidate list and the solution, which are
+ * only modified between steps. Each chunk checks the deadline of the solver
+ * once every {@link Deadline#CHECK_PERIOD} moves, and a step any chunk of
+ * which is cut short by it applies no move.
+ *
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+public class ParallelBestImprovingSearchStrategy<E> extends AbstractSearchStrategy<E> {
+
+	/**
+	 * Default number of moves below which a chunk is not split any further.
+	 */
+	public static final int DEFAULT_GRAIN = 2048;
+
+	/**
+	 * the pool running the chunks
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * the number of moves below which a chunk is not split any further
+	 */
+	private final int grain;
+
+	/**
+	 * Constructor for the ParallelBestImprovingSearchStrategy class, running
+	 * on the common ForkJoin pool.
+	 */
+	public ParallelBestImprovingSearchStrategy() {
+		this(ForkJoinPool.commonPool(), DEFAULT_GRAIN);
+	}
+
+	/**
+	 * Constructor for the ParallelBestImprovingSearchStrategy class.
+	 *
+	 * @param pool
+	 *            The pool running the chunks of the neighborhood scan.
+	 * @param grain
+	 *            The number of moves below which a chunk is not split any
+	 *            further. Neighborhoods smaller than that are scanned on the
+	 *            calling thread.
+	 */
+	public ParallelBestImprovingSearchStrategy(ForkJoinPool pool, int grain) {
+		if (grain < 1)
+			throw new IllegalArgumentException("The grain must be positive: " + grain);
+		this.pool = pool;
+		this.grain = grain;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see problems.qbf.search_strategies.AbstractSearchStrategy#localSearch(problems.IncrementalEvaluator,
+	 * solutions.Solution, metaheuristics.grasp.AbstractGRASP)
+	 */
+	@Override
+	public Solution<E> localSearch(
+		IncrementalEvaluator<E> ObjFunction,
+		Solution<E> solution,
+		AbstractGRASP<E> solver
+	) {
+		BestMove best;
+		long insertions = 0, removals = 0, exchanges = 0, moves = 0;
+
+		ObjFunction.bind(solution);
+		do {
+			solver.updateCL();
+			Scan<E> scan = new Scan<E>(ObjFunction, solver.getCLView(), solution, grain, solver.getDeadline());
+			best = (scan.to <= grain) ? scan.compute() : pool.invoke(scan);
+			// Stop early, at the current solution, once the deadline expires
+			if (best.expired)
+				break;
+			// The whole neighborhood is scanned, so the chunks need not count
+			insertions += scan.clSize;
+			removals += scan.solSize;
+			exchanges += (long) scan.clSize * scan.solSize;
+
+			// Implement the best move, if it reduces the solution cost.
+			if (best.deltaCost < -Double.MIN_VALUE) {
+				moves++;
+				E candIn = scan.candIn(best.move), candOut = scan.candOut(best.move);
+				if (candIn != null && candOut != null) {
+					ObjFunction.applyExchange(candIn, candOut);
+				} else if (candOut != null) {
+					ObjFunction.applyRemoval(candOut);
+				} else {
+					ObjFunction.applyInsertion(candIn);
+				}
+			}
+		} while (best.deltaCost < -Double.MIN_VALUE);
+
+		solver.countEvaluations(insertions, removals, exchanges);
+		solver.countFullEvaluations(1);
+		solver.countMoves(moves);
+		return solution;
+	}
+
+	/**
+	 * The best move of a chunk: its cost variation and its number, or the
+	 * mark of a chunk cut short by the deadline.
+	 */
+	private static class BestMove {
+
+		static final BestMove EXPIRED = new BestMove(Double.NaN, -1, true);
+
+		final double deltaCost;
+
+		final long move;
+
+		final boolean expired;
+
+		BestMove(double deltaCost, long move) {
+			this(deltaCost, move, false);
+		}
+
+		private BestMove(double deltaCost, long move, boolean expired) {
+			this.deltaCost = deltaCost;
+			this.move = move;
+			this.expired = expired;
+		}
+
+		BestMove merge(BestMove other) {
+			if (expired)
+				return this;
+			if (other.expired || other.deltaCost < deltaCost || (other.deltaCost == deltaCost && other.move < move))
+				return other;
+			return this;
+		}
+
+	}
+
+	/**
+	 * Scan of the moves numbered in [from, to). Moves [0, |CL|) are the
+	 * insertions, the next |sol| moves are the removals and the remaining
+	 * |CL|*|sol| moves are the exchanges, candidate of the CL major.
+	 */
+	@SuppressWarnings("serial")
+	private static class Scan<E> extends RecursiveTask<BestMove> {
+
+		private final IncrementalEvaluator<E> ObjFunction;
+
+		private final ArrayList<E> cl;
+
+		private final Solution<E> solution;
+
+		final int clSize, solSize;
+
+		private final int grain;
+
+		private final Deadline deadline;
+
+		final long from, to;
+
+		Scan(IncrementalEvaluator<E> ObjFunction, ArrayList<E> cl, Solution<E> solution, int grain, Deadline deadline) {
+			this(ObjFunction, cl, solution, grain, deadline, 0,
+					cl.size() + solution.size() + (long) cl.size() * solution.size());
+		}
+
+		private Scan(IncrementalEvaluator<E> ObjFunction, ArrayList<E> cl, Solution<E> solution, int grain,
+				Deadline deadline, long from, long to) {
+			this.ObjFunction = ObjFunction;
+			this.cl = cl;
+			this.solution = solution;
+			this.clSize = cl.size();
+			this.solSize = solution.size();
+			this.grain = grain;
+			this.deadline = deadline;
+			this.from = from;
+			this.to = to;
+		}
+
+		E candIn(long move) {
+			if (move < clSize)
+				return cl.get((int) move);
+			if (move < clSize + solSize)
+				return null;
+			return cl.get((int) ((move - clSize - solSize) / solSize));
+		}
+
+		E candOut(long move) {
+			if (move < clSize)
+				return null;
+			if (move < clSize + solSize)
+				return solution.get((int) (move - clSize));
+			return solution.get((int) ((move - clSize - solSize) % solSize));
+		}
+
+		@Override
+		protected BestMove compute() {
+			if (to - from > grain) {
+				long mid = (from + to) >>> 1;
+				Scan<E> left = new Scan<E>(ObjFunction, cl, solution, grain, deadline, from, mid);
+				Scan<E> right = new Scan<E>(ObjFunction, cl, solution, grain, deadline, mid, to);
+				left.fork();
+				BestMove rightBest = right.compute();
+				return left.join().merge(rightBest);
+			}
+
+			double minDeltaCost = Double.POSITIVE_INFINITY;
+			long bestMove = from;
+			long move = from;
+
+			// The moves are scanned in blocks of CHECK_PERIOD, checking the
+			// deadline before each block
+			while (move < to) {
+				if (deadline.isExpired())
+					return BestMove.EXPIRED;
+				long end = Math.min(to, move + Deadline.CHECK_PERIOD);
+
+				// Evaluate insertions
+				for (; move < end && move < clSize; move++) {
+					double deltaCost = ObjFunction.evaluateInsertionDelta(cl.get((int) move));
+					if (deltaCost < minDeltaCost) {
+						minDeltaCost = deltaCost;
+						bestMove = move;
+					}
+				}
+				// Evaluate removals
+				for (; move < end && move < clSize + solSize; move++) {
+					double deltaCost = ObjFunction.evaluateRemovalDelta(solution.get((int) (move - clSize)));
+					if (deltaCost < minDeltaCost) {
+						minDeltaCost = deltaCost;
+						bestMove = move;
+					}
+				}
+				// Evaluate exchanges
+				if (move < end) {
+					int k = (int) ((move - clSize - solSize) / solSize), l = (int) ((move - clSize - solSize) % solSize);
+					E candIn = cl.get(k);
+					for (; move < end; move++) {
+						double deltaCost = ObjFunction.evaluateExchangeDelta(candIn, solution.get(l));
+						if (deltaCost < minDeltaCost) {
+							minDeltaCost = deltaCost;
+							bestMove = move;
+						}
+						if (++l == solSize && move + 1 < end) {
+							l = 0;
+							candIn = cl.get(++k);
+						}
+					}
+				}
+			}
+
+			return new BestMove(minDeltaCost, bestMove);
+		}
+
+	}
+
+}
@@ -0,0 +1,201 @@
+package problems.qbf.search_strategies;
+
+import java.util.ArrayList;
+
+import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.Deadline;
+import problems.IncrementalEvaluator;
+import problems.qbf.QBF;
+import problems.qbf.matrices.CouplingPartners;
+import solutions.Solution;
+
+/**
+ * First-improving local search with a restricted exchange neighborhood, for
+ * the QBF problems. Insertions and removals are evaluated as in
+ * {@link FirstImprovingSearchStrategy}, but instead of every (candIn, candOut)
+ * pair, only the exchanges between a variable and one of its k strongest
+ * coupling partners are tried (see {@link CouplingPartners}), which takes
+ * O(k*(|CL| + |sol|)) evaluations instead of O(|CL|*|sol|).
+ *
+ * In every {@link #fullScanPeriod}-th iteration of the solver, once the
+ * restricted neighborhood holds no improving move, a full scan of the
+ * exchanges confirms that the solution is a local optimum of the whole
+ * neighborhood, or else the descent goes on with the restricted neighborhood
+ * after the improving exchange found. The descents of the other iterations
+ * stop at a local optimum of the restricted neighborhood: since that last scan
+ * is what most of the exchange evaluations of a descent go to, the period
+ * trades the exactness of the local optima for speed. With a period of 1,
+ * every descent ends at a true local optimum.
+ *
+ * Which iterations get a full scan follows from their index alone, so the
+ * strategy holds no state, and can be shared by concurrent solvers.
+ */
+public class RestrictedExchangeSearchStrategy extends AbstractSearchStrategy<Integer> {
+    /**
+     * the default number of coupling partners of each variable
+     */
+    public static final int DEFAULT_PARTNERS = 16;
+
+    /**
+     * the default number of iterations per full scan of the exchanges
+     */
+    public static final int DEFAULT_FULL_SCAN_PERIOD = 50;
+
+    /**
+     * the number of coupling partners of each variable
+     */
+    private final int nPartners;
+
+    /**
+     * the number of iterations per full scan of the exchanges, 0 for none
+     */
+    private final int fullScanPeriod;
+
+    /**
+     * Constructor with {@link #DEFAULT_PARTNERS} partners per variable and a
+     * full scan every {@link #DEFAULT_FULL_SCAN_PERIOD} iterations.
+     */
+    public RestrictedExchangeSearchStrategy() {
+        this(DEFAULT_PARTNERS, DEFAULT_FULL_SCAN_PERIOD);
+    }
+
+    /**
+     * @param nPartners
+     *            The number of coupling partners of each variable.
+     * @param fullScanPeriod
+     *            The number of iterations per full scan of the exchanges, 1 to
+     *            always end at a local optimum of the whole neighborhood, 0
+     *            to never run a full scan.
+     */
+    public RestrictedExchangeSearchStrategy(int nPartners, int fullScanPeriod) {
+        if (nPartners < 1)
+            throw new IllegalArgumentException("The number of partners must be positive: " + nPartners);
+        if (fullScanPeriod < 0)
+            throw new IllegalArgumentException("The full scan period must not be negative: " + fullScanPeriod);
+        this.nPartners = nPartners;
+        this.fullScanPeriod = fullScanPeriod;
+    }
+
+    public int getPartnersPerVariable() {
+        return nPartners;
+    }
+
+    public int getFullScanPeriod() {
+        return fullScanPeriod;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see problems.qbf.search_strategies.AbstractSearchStrategy#localSearch(problems.IncrementalEvaluator,
+     * solutions.Solution, metaheuristics.grasp.AbstractGRASP)
+     */
+    @Override
+    public Solution<Integer> localSearch(
+        IncrementalEvaluator<Integer> ObjFunction,
+        Solution<Integer> solution,
+        AbstractGRASP<Integer> solver
+    ) {
+        QBF qbf = (QBF) ObjFunction;
+        CouplingPartners partners = qbf.getCouplingPartners(nPartners);
+        int[] partner = partners.getPartners();
+        boolean fullScan = fullScanPeriod > 0 && solver.getIteration() % fullScanPeriod == 0;
+        Integer bestCandIn, bestCandOut;
+        long insertions = 0, removals = 0, exchanges = 0, moves = 0, checkedAt = 0;
+
+        // The candidate and solution lists test membership in constant time
+        ObjFunction.bind(solution);
+        while (true) {
+            // Stop early, at the current solution, once the deadline expires
+            if (insertions + removals + exchanges - checkedAt >= Deadline.CHECK_PERIOD) {
+                checkedAt = insertions + removals + exchanges;
+                if (solver.getDeadline().isExpired())
+                    break;
+            }
+            bestCandIn = null;
+            bestCandOut = null;
+            solver.updateCL();
+            ArrayList<Integer> cl = solver.getCLView();
+            int clSize = cl.size(), solSize = solution.size();
+
+            // Evaluate insertions
+            for (int k = 0; k < clSize && bestCandIn == null; k++) {
+                insertions++;
+                if (ObjFunction.evaluateInsertionDelta(cl.get(k)) < -Double.MIN_VALUE)
+                    bestCandIn = cl.get(k);
+            }
+            if (bestCandIn != null) {
+                moves++;
+                ObjFunction.applyInsertion(bestCandIn);
+                continue;
+            }
+            // Evaluate removals
+            for (int l = 0; l < solSize && bestCandOut == null; l++) {
+                removals++;
+                if (ObjFunction.evaluateRemovalDelta(solution.get(l)) < -Double.MIN_VALUE)
+                    bestCandOut = solution.get(l);
+            }
+            if (bestCandOut != null) {
+                moves++;
+                ObjFunction.applyRemoval(bestCandOut);
+                continue;
+            }
+            // Evaluate the exchanges with the partners of the candidates, then
+            // with the partners of the elements of the solution, since the
+            // partner relation is not symmetric
+            search:
+            for (int k = 0; k < clSize; k++) {
+                Integer candIn = cl.get(k);
+                for (int p = partners.start(candIn), end = partners.end(candIn); p < end; p++) {
+                    Integer candOut = qbf.getElement(partner[p]);
+                    if (!solution.contains(candOut))
+                        continue;
+                    exchanges++;
+                    if (ObjFunction.evaluateExchangeDelta(candIn, candOut) < -Double.MIN_VALUE) {
+                        bestCandIn = candIn;
+                        bestCandOut = candOut;
+                        break search;
+                    }
+                }
+            }
+            search:
+            for (int l = 0; l < solSize && bestCandIn == null; l++) {
+                Integer candOut = solution.get(l);
+                for (int p = partners.start(candOut), end = partners.end(candOut); p < end; p++) {
+                    Integer candIn = qbf.getElement(partner[p]);
+                    if (!cl.contains(candIn))
+                        continue;
+                    exchanges++;
+                    if (ObjFunction.evaluateExchangeDelta(candIn, candOut) < -Double.MIN_VALUE) {
+                        bestCandIn = candIn;
+                        bestCandOut = candOut;
+                        break search;
+                    }
+                }
+            }
+            // Confirm with the whole exchange neighborhood
+            search:
+            for (int k = 0; k < clSize && bestCandIn == null && fullScan; k++) {
+                Integer candIn = cl.get(k);
+                for (int l = 0; l < solSize; l++) {
+                    Integer candOut = solution.get(l);
+                    exchanges++;
+                    if (ObjFunction.evaluateExchangeDelta(candIn, candOut) < -Double.MIN_VALUE) {
+                        bestCandIn = candIn;
+                        bestCandOut = candOut;
+                        break search;
+                    }
+                }
+            }
+            if (bestCandIn == null)
+                break;
+            moves++;
+            ObjFunction.applyExchange(bestCandIn, bestCandOut);
+        }
+
+        solver.countEvaluations(insertions, removals, exchanges);
+        solver.countFullEvaluations(1);
+        solver.countMoves(moves);
+        return solution;
+    }
+}
@@ -5,11 +5,14 @@ import java.util.ArrayList;
 import java.util.logging.Logger;
 
 import metaheuristics.grasp.AbstractGRASP;
+import metaheuristics.grasp.ElementCodec;
 import problems.qbf.QBF;
 import problems.qbf.QBF_Inverse;
 import problems.qbf.search_strategies.AbstractSearchStrategy;
 import problems.qbf.search_strategies.BestImprovingSearchStrategy;
 import problems.qbf.search_strategies.FirstImprovingSearchStrategy;
+import solutions.IntCandidateList;
+import solutions.IntSolution;
 import solutions.Solution;
 
 
@@ -59,11 +62,10 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 	 *            The QBF evaluator to be used.
      * @param timeoutInSeconds Maximum time in seconds that the GRASP can run. If null, there is no time limit.
 	 * @param maxIterationsWithoutImprovement Maximum number of iterations without improvement before stopping. If null, there is no limit.
-	 * @throws IOException
-	 *             necessary for I/O operations.
 	 */
-	public GRASP_QBF(Double alpha, Integer iterations, QBF evaluator, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) throws IOException {
+	public GRASP_QBF(Double alpha, Integer iterations, QBF evaluator, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) {
 		super(evaluator, alpha, iterations, timeoutInSeconds, maxIterationsWithoutImprovement);
+        searchStrategy = new BestImprovingSearchStrategy<Integer>();
 	}
 
 	/*
@@ -74,9 +76,10 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 	@Override
 	public ArrayList<Integer> makeCL() {
 
-		ArrayList<Integer> _CL = new ArrayList<Integer>();
-		for (int i = 0; i < ObjFunction.getDomainSize(); i++) {
-			Integer cand = i;
+		QBF qbf = (QBF) ObjFunction;
+		ArrayList<Integer> _CL = new IntCandidateList(qbf.size);
+		for (int i = 0; i < qbf.size; i++) {
+			Integer cand = qbf.getElement(i);
 			_CL.add(cand);
 		}
 
@@ -84,20 +87,6 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see grasp.abstracts.AbstractGRASP#makeRCL()
-	 */
-	@Override
-	public ArrayList<Integer> makeRCL() {
-
-		ArrayList<Integer> _RCL = new ArrayList<Integer>();
-
-		return _RCL;
-
-	}
-
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -106,7 +95,19 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 	@Override
 	public void updateCL() {
 
-		// do nothing since all elements off the solution are viable candidates.
+		// All elements off the solution are viable candidates. The list only
+		// needs to catch up with the moves applied to the solution since the
+		// last update, which takes a constant time check per element.
+		QBF qbf = (QBF) ObjFunction;
+		countCLUpdate();
+		for (int i = 0; i < qbf.size; i++) {
+			Integer elem = qbf.getElement(i);
+			if (sol.contains(elem)) {
+				CL.remove(elem);
+			} else {
+				CL.add(elem);
+			}
+		}
 
 	}
 
@@ -119,11 +120,36 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 	 */
 	@Override
 	public Solution<Integer> createEmptySol() {
-		Solution<Integer> sol = new Solution<Integer>();
+		Solution<Integer> sol = new IntSolution(((QBF) ObjFunction).size);
 		sol.cost = ObjFunction.evaluate(sol);
+		countFullEvaluations(1);
 		return sol;
 	}
 
+	/**
+	 * Gives the codec to checkpoint the runs of this solver with (see
+	 * {@link AbstractGRASP#setCheckpoints(java.nio.file.Path, long, ElementCodec)}),
+	 * which codes an element by the index of its variable.
+	 * 
+	 * @return The codec of the elements.
+	 */
+	public ElementCodec<Integer> getElementCodec() {
+		QBF qbf = (QBF) ObjFunction;
+		return new ElementCodec<Integer>() {
+			@Override
+			public int encode(Integer elem) {
+				return elem;
+			}
+
+			@Override
+			public Integer decode(int code) {
+				if (code < 0 || code >= qbf.size)
+					throw new IllegalArgumentException("No variable " + code + " in a QBF of size " + qbf.size);
+				return qbf.getElement(code);
+			}
+		};
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -135,6 +161,22 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
         return searchStrategy.localSearch(ObjFunction, sol, this);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The worker gets a copy of the QBF evaluator, which shares the matrix of
+	 * coefficients with this solver. The search strategy is stateless, so the
+	 * same instance is used by both.
+	 */
+	@Override
+	public GRASP_QBF createWorker() {
+		GRASP_QBF worker = new GRASP_QBF(alpha, iterations, ((QBF) ObjFunction).copy(), timeoutInSeconds, maxIterationsWithoutImprovement);
+		worker.setSearchStrategy(searchStrategy);
+		worker.setConstructiveStrategy(constructiveStrategy);
+		worker.setSeed(seed);
+		return worker;
+	}
+
     public AbstractSearchStrategy<Integer> getSearchStrategy() {
         return searchStrategy;
     }
@@ -31,6 +31,23 @@ public class GRASP_QBF_SC extends GRASP_QBF {
 		super(alpha, iterations, new QBF_SC_Inverse(filename), timeoutInSeconds, maxIterationsWithoutImprovement);
 	}
 
+    /**
+	 * Alternate constructor for the GRASP_QBF_SC class, that receives the evaluator as a parameter.
+	 * 
+	 * @param alpha
+	 *            The GRASP greediness-randomness parameter (within the range
+	 *            [0,1])
+	 * @param iterations
+	 *            The number of iterations which the GRASP will be executed.
+	 * @param evaluator
+	 *            The QBF-SC evaluator to be used.
+     * @param timeoutInSeconds Maximum time in seconds that the GRASP can run. If null, there is no time limit.
+	 * @param maxIterationsWithoutImprovement Maximum number of iterations without improvement before stopping. If null, there is no limit.
+	 */
+	public GRASP_QBF_SC(Double alpha, Integer iterations, QBF_SC_Inverse evaluator, Long timeoutInSeconds, Integer maxIterationsWithoutImprovement) {
+		super(alpha, iterations, evaluator, timeoutInSeconds, maxIterationsWithoutImprovement);
+	}
+
     /*
 	 * (non-Javadoc)
 	 * 
@@ -39,7 +56,32 @@ public class GRASP_QBF_SC extends GRASP_QBF {
 	@Override
 	public void updateCL() {
         QBF_SC_Inverse objFunc = (QBF_SC_Inverse) ObjFunction;
-        CL = objFunc.getVariablesThatCanBeSetToZero();
+        countCLUpdate();
+        objFunc.getVariablesThatCanBeSetToZero(CL);
+	}
+
+	/**
+	 * {@inheritDoc} Inserting an element disables its set, which is only
+	 * feasible if every element of the set stays covered by another active
+	 * set, as tracked by the coverage counters of the evaluator.
+	 */
+	@Override
+	protected boolean isFeasibleInsertion(Integer elem) {
+		return ((QBF_SC_Inverse) ObjFunction).canBeSetToZero(elem);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see problems.qbf.solvers.GRASP_QBF#createWorker()
+	 */
+	@Override
+	public GRASP_QBF_SC createWorker() {
+		GRASP_QBF_SC worker = new GRASP_QBF_SC(alpha, iterations, ((QBF_SC_Inverse) ObjFunction).copy(), timeoutInSeconds, maxIterationsWithoutImprovement);
+		worker.setSearchStrategy(searchStrategy);
+		worker.setConstructiveStrategy(constructiveStrategy);
+		worker.setSeed(seed);
+		return worker;
 	}
 
     	/**
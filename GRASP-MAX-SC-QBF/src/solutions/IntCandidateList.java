@@ -0,0 +1,191 @@
+package solutions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A candidate list whose elements are the integers of a domain
+ * [0, domainSize). It keeps the same membership index as an
+ * {@link IntSolution}, so that candidates are looked up, added and removed in
+ * constant time. Removing a candidate moves the last one into its place,
+ * hence the order of the candidates is arbitrary, and a candidate is never
+ * added twice.
+ *
+ * Operations that would place candidates at arbitrary positions, such as
+ * {@link #set(int, Integer)}, are not supported. Neither are the removals
+ * through iterators and sub-lists, since an iterator would skip the element
+ * moved into the freed position, and a sub-list would not update the
+ * membership index: the iterators and sub-lists are read-only.
+ */
+@SuppressWarnings("serial")
+public class IntCandidateList extends ArrayList<Integer> {
+
+	private IntMembership membership;
+
+	/**
+	 * Creates an empty candidate list over the domain [0, domainSize).
+	 *
+	 * @param domainSize
+	 *            the size of the domain of the candidates.
+	 */
+	public IntCandidateList(int domainSize) {
+		super(domainSize);
+		membership = new IntMembership(domainSize);
+	}
+
+	/**
+	 * Tells whether an element is a candidate, in constant time.
+	 *
+	 * @param elem
+	 *            the element.
+	 * @return true if the element is in the candidate list.
+	 */
+	public boolean contains(int elem) {
+		return membership.contains(elem);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Integer) && membership.contains((Integer) o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return (o instanceof Integer) ? membership.indexOf((Integer) o) : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Adds a candidate at the end of the list, unless it is already in it.
+	 *
+	 * @return true if the candidate was added.
+	 */
+	@Override
+	public boolean add(Integer elem) {
+		if (membership.contains(elem))
+			return false;
+		membership.placed(elem, size());
+		return super.add(elem);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Integer> c) {
+		boolean changed = false;
+		for (Integer elem : c)
+			changed |= add(elem);
+		return changed;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0)
+			return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public Integer remove(int index) {
+		Integer elem = super.get(index);
+		int last = size() - 1;
+		if (index != last) {
+			Integer moved = super.get(last);
+			super.set(index, moved);
+			membership.placed(moved, index);
+		}
+		super.remove(last);
+		membership.removed(elem);
+		return elem;
+	}
+
+	@Override
+	public void clear() {
+		membership.clear(this);
+		super.clear();
+	}
+
+	@Override
+	public Object clone() {
+		IntCandidateList copy = (IntCandidateList) super.clone();
+		copy.membership = new IntMembership(membership);
+		return copy;
+	}
+
+	@Override
+	public void add(int index, Integer elem) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer set(int index, Integer elem) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Integer> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Integer> filter) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Integer> operator) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void sort(Comparator<? super Integer> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new ReadOnlyListIterator<Integer>(super.listIterator());
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator() {
+		return new ReadOnlyListIterator<Integer>(super.listIterator());
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator(int index) {
+		return new ReadOnlyListIterator<Integer>(super.listIterator(index));
+	}
+
+	@Override
+	public List<Integer> subList(int fromIndex, int toIndex) {
+		return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+	}
+
+}
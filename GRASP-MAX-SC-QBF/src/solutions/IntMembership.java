@@ -0,0 +1,74 @@
+package solutions;
+
+import java.util.ArrayList;
+
+/**
+ * Membership index of a dense list of integer elements taken from the domain
+ * [0, domainSize). It keeps a bitset of the elements in the list and the
+ * position of each one, so that membership tests and removals take constant
+ * time: an element is removed by moving the last element of the list into
+ * its position. This makes the order of the list arbitrary.
+ *
+ * It is shared by {@link IntSolution} and {@link IntCandidateList}, which
+ * hold the elements themselves in their {@link ArrayList} storage.
+ */
+class IntMembership {
+
+	/**
+	 * bit i is set iff element i is in the list
+	 */
+	private final long[] bits;
+
+	/**
+	 * the position of each element in the list, only meaningful for the
+	 * elements in it
+	 */
+	private final int[] position;
+
+	IntMembership(int domainSize) {
+		bits = new long[(domainSize + 63) >>> 6];
+		position = new int[domainSize];
+	}
+
+	IntMembership(IntMembership other) {
+		bits = other.bits.clone();
+		position = other.position.clone();
+	}
+
+	int getDomainSize() {
+		return position.length;
+	}
+
+	boolean contains(int elem) {
+		return elem >= 0 && elem < position.length && (bits[elem >>> 6] & (1L << elem)) != 0;
+	}
+
+	int indexOf(int elem) {
+		return contains(elem) ? position[elem] : -1;
+	}
+
+	/**
+	 * Records that an element was placed at a position of the list.
+	 */
+	void placed(int elem, int index) {
+		bits[elem >>> 6] |= 1L << elem;
+		position[elem] = index;
+	}
+
+	/**
+	 * Records that an element was taken out of the list.
+	 */
+	void removed(int elem) {
+		bits[elem >>> 6] &= ~(1L << elem);
+	}
+
+	/**
+	 * Unmarks every element of the list, before the list itself is cleared.
+	 */
+	void clear(ArrayList<Integer> list) {
+		for (int k = 0; k < list.size(); k++) {
+			removed(list.get(k));
+		}
+	}
+
+}
@@ -0,0 +1,219 @@
+package solutions;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A solution whose elements are the integers of a domain [0, domainSize).
+ * Besides the list of elements, it keeps a membership index (a bitset and
+ * the position of each element), so that {@link #contains(Object)},
+ * {@link #add(Integer)} and {@link #remove(Object)} take constant time.
+ * Removing an element moves the last one into its place, hence the order of
+ * the elements is arbitrary, and an element is never added twice.
+ *
+ * Operations that would place elements at arbitrary positions, such as
+ * {@link #set(int, Integer)}, are not supported. Neither are the removals
+ * through iterators and sub-lists, since an iterator would skip the element
+ * moved into the freed position, and a sub-list would not update the
+ * membership index: the iterators and sub-lists are read-only.
+ */
+@SuppressWarnings("serial")
+public class IntSolution extends Solution<Integer> {
+
+	private IntMembership membership;
+
+	/**
+	 * Creates an empty solution over the domain [0, domainSize).
+	 *
+	 * @param domainSize
+	 *            the size of the domain of the elements.
+	 */
+	public IntSolution(int domainSize) {
+		super();
+		membership = new IntMembership(domainSize);
+	}
+
+	/**
+	 * Copy constructor, which copies the elements and the membership index of
+	 * the other solution without re-indexing them.
+	 *
+	 * @param sol
+	 *            the solution being copied.
+	 */
+	public IntSolution(IntSolution sol) {
+		super(sol);
+		membership = new IntMembership(sol.membership);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see solutions.Solution#copy()
+	 */
+	@Override
+	public IntSolution copy() {
+		return new IntSolution(this);
+	}
+
+	/**
+	 * @return the size of the domain of the elements.
+	 */
+	public int getDomainSize() {
+		return membership.getDomainSize();
+	}
+
+	/**
+	 * Tells whether an element is in the solution, in constant time.
+	 *
+	 * @param elem
+	 *            the element.
+	 * @return true if the element is in the solution.
+	 */
+	public boolean contains(int elem) {
+		return membership.contains(elem);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Integer) && membership.contains((Integer) o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return (o instanceof Integer) ? membership.indexOf((Integer) o) : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Adds an element at the end of the solution, unless it is already in it.
+	 *
+	 * @return true if the element was added.
+	 */
+	@Override
+	public boolean add(Integer elem) {
+		if (membership.contains(elem))
+			return false;
+		membership.placed(elem, size());
+		return super.add(elem);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Integer> c) {
+		boolean changed = false;
+		for (Integer elem : c)
+			changed |= add(elem);
+		return changed;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0)
+			return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public Integer remove(int index) {
+		Integer elem = super.get(index);
+		int last = size() - 1;
+		if (index != last) {
+			Integer moved = super.get(last);
+			super.set(index, moved);
+			membership.placed(moved, index);
+		}
+		super.remove(last);
+		membership.removed(elem);
+		return elem;
+	}
+
+	@Override
+	public void clear() {
+		membership.clear(this);
+		super.clear();
+	}
+
+	@Override
+	public Object clone() {
+		IntSolution copy = (IntSolution) super.clone();
+		copy.membership = new IntMembership(membership);
+		return copy;
+	}
+
+	@Override
+	public void add(int index, Integer elem) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer set(int index, Integer elem) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Integer> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Integer> filter) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Integer> operator) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void sort(Comparator<? super Integer> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new ReadOnlyListIterator<Integer>(super.listIterator());
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator() {
+		return new ReadOnlyListIterator<Integer>(super.listIterator());
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator(int index) {
+		return new ReadOnlyListIterator<Integer>(super.listIterator(index));
+	}
+
+	@Override
+	public List<Integer> subList(int fromIndex, int toIndex) {
+		return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+	}
+
+}
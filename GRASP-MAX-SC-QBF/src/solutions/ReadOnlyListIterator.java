@@ -0,0 +1,76 @@
+package solutions;
+
+import java.util.ListIterator;
+import java.util.function.Consumer;
+
+/**
+ * List iterator that walks another one, but rejects {@link #remove()},
+ * {@link #set(Object)} and {@link #add(Object)}.
+ *
+ * It is what {@link IntSolution} and {@link IntCandidateList} iterate with:
+ * the iterators of their {@link java.util.ArrayList} storage would remove
+ * through the swap removal, which moves the last element into the freed
+ * position, where the iteration does not look again.
+ *
+ * @param <E>
+ *            Generic type of the elements iterated over.
+ */
+class ReadOnlyListIterator<E> implements ListIterator<E> {
+
+	private final ListIterator<E> it;
+
+	ReadOnlyListIterator(ListIterator<E> it) {
+		this.it = it;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return it.hasNext();
+	}
+
+	@Override
+	public E next() {
+		return it.next();
+	}
+
+	@Override
+	public boolean hasPrevious() {
+		return it.hasPrevious();
+	}
+
+	@Override
+	public E previous() {
+		return it.previous();
+	}
+
+	@Override
+	public int nextIndex() {
+		return it.nextIndex();
+	}
+
+	@Override
+	public int previousIndex() {
+		return it.previousIndex();
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super E> action) {
+		it.forEachRemaining(action);
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void set(E e) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void add(E e) {
+		throw new UnsupportedOperationException();
+	}
+
+}
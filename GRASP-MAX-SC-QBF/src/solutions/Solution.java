@@ -5,7 +5,7 @@ import java.util.ArrayList;
 @SuppressWarnings("serial")
 public class Solution<E> extends ArrayList<E> {
 	
-	public Double cost = Double.POSITIVE_INFINITY;
+	public double cost = Double.POSITIVE_INFINITY;
 	
 	public Solution() {
 		super();
@@ -16,6 +16,16 @@ public class Solution<E> extends ArrayList<E> {
 		cost = sol.cost;
 	}
 
+	/**
+	 * Creates a snapshot of this solution, e.g. to keep it as the incumbent
+	 * while this one keeps being modified.
+	 * 
+	 * @return a copy of this solution, of the same class.
+	 */
+	public Solution<E> copy() {
+		return new Solution<E>(this);
+	}
+
 	@Override
 	public String toString() {
 		return "Solution: cost=[" + cost + "], size=[" + this.size() + "], elements=" + super.toString();